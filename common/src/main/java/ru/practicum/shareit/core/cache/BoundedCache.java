@@ -0,0 +1,199 @@
+package ru.practicum.shareit.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+
+/**
+ * Size-bounded cache with an optional time to live that readers never block on. Each entry keeps the time it was
+ * last read. Once the cache grows past {@code maxSize}, one writer drops expired entries and then the least recently
+ * read ones until a tenth of the room is free again, so that sort is paid once per batch of inserts.
+ * <p>
+ * A value loaded while any entry was invalidated is returned but not cached: it may have been read before the write
+ * that caused the invalidation committed.
+ */
+public class BoundedCache<K, V> {
+    private final int maxSize;
+    private final int evictTo;
+    private final Duration ttl;
+    private final Clock clock;
+    private final LongSupplier ticker;
+    private final Predicate<? super V> negative;
+    private final ConcurrentMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Lock evictionLock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidated;
+
+    /**
+     * @param ttl      how long an entry is served after it was stored, or {@code null} to keep it until evicted
+     * @param negative tells cached "not found" answers apart, counted as {@code negative-hit}; may be {@code null}
+     */
+    public BoundedCache(MeterRegistry registry, String name, int maxSize, Duration ttl, Clock clock,
+        Predicate<? super V> negative) {
+        this(registry, name, maxSize, ttl, clock, negative, System::nanoTime);
+    }
+
+    BoundedCache(MeterRegistry registry, String name, int maxSize, Duration ttl, Clock clock,
+        Predicate<? super V> negative, LongSupplier ticker) {
+        this.maxSize = maxSize;
+        evictTo = maxSize - maxSize / 10;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.ticker = ticker;
+        this.negative = negative != null ? negative : value -> false;
+        hits = registry.counter("cache.gets", "cache", name, "result", "hit");
+        negativeHits = negative != null ? registry.counter("cache.gets", "cache", name, "result", "negative-hit") : hits;
+        misses = registry.counter("cache.gets", "cache", name, "result", "miss");
+        evictions = registry.counter("cache.evictions", "cache", name);
+        invalidated = registry.counter("cache.invalidations", "cache", name);
+        Gauge.builder("cache.size", entries, Map::size).tag("cache", name).register(registry);
+    }
+
+    public Optional<V> getIfPresent(K key) {
+        Node<V> node = find(key, clock.instant());
+        if (node == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        (negative.test(node.value) ? negativeHits : hits).increment();
+        return Optional.of(node.value);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Instant now = clock.instant();
+        Node<V> node = find(key, now);
+        if (node != null) {
+            (negative.test(node.value) ? negativeHits : hits).increment();
+            return node.value;
+        }
+
+        misses.increment();
+        long version = invalidations.get();
+        V value = loader.apply(key);
+        if (invalidations.get() == version) {
+            store(key, value, now);
+        }
+
+        return value;
+    }
+
+    public void put(K key, V value) {
+        store(key, value, clock.instant());
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        if (entries.remove(key) != null) {
+            invalidated.increment();
+        }
+    }
+
+    public void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        invalidations.incrementAndGet();
+        entries.forEach((key, node) -> {
+            if (predicate.test(key, node.value) && entries.remove(key, node)) {
+                invalidated.increment();
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        invalidateIf((key, value) -> true);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Node<V> find(K key, Instant now) {
+        Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.isExpired(now)) {
+            evict(key, node);
+            return null;
+        }
+
+        node.lastRead = ticker.getAsLong();
+        return node;
+    }
+
+    private void store(K key, V value, Instant now) {
+        entries.put(key, new Node<>(value, ttl != null ? now.plus(ttl) : null, ticker.getAsLong()));
+        if (entries.size() > maxSize && evictionLock.tryLock()) {
+            try {
+                evictOverflow(now);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void evictOverflow(Instant now) {
+        List<Candidate<K, V>> candidates = new ArrayList<>();
+        entries.forEach((key, node) -> {
+            if (node.isExpired(now)) {
+                evict(key, node);
+            } else {
+                candidates.add(new Candidate<>(key, node));
+            }
+        });
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastRead));
+
+        Iterator<Candidate<K, V>> eldest = candidates.iterator();
+        while (entries.size() > evictTo && eldest.hasNext()) {
+            Candidate<K, V> candidate = eldest.next();
+            evict(candidate.key, candidate.node);
+        }
+    }
+
+    private void evict(K key, Node<V> node) {
+        if (entries.remove(key, node)) {
+            evictions.increment();
+        }
+    }
+
+    private static class Node<V> {
+        private final V value;
+        private final Instant expiresAt;
+        private volatile long lastRead;
+
+        Node(V value, Instant expiresAt, long lastRead) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastRead = lastRead;
+        }
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+
+    /**
+     * Snapshot of an entry's last read, so concurrent reads cannot reorder it while it is sorted.
+     */
+    private static class Candidate<K, V> {
+        private final K key;
+        private final Node<V> node;
+        private final long lastRead;
+
+        Candidate(K key, Node<V> node) {
+            this.key = key;
+            this.node = node;
+            lastRead = node.lastRead;
+        }
+    }
+}
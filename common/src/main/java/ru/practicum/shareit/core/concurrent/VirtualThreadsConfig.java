@@ -0,0 +1,44 @@
+package ru.practicum.shareit.core.concurrent;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.*;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.*;
+
+/**
+ * Runs Tomcat request handling and Spring's application task executor on virtual threads when
+ * {@code virtual-threads.enabled} is set. Shared by the server and the gateway. The JDK call is made reflectively
+ * because both are still compiled for Java 11.
+ */
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadsConfig.PROPERTY, havingValue = "true")
+public class VirtualThreadsConfig {
+    public static final String PROPERTY = "virtual-threads.enabled";
+
+    @Bean
+    @ConditionalOnMissingBean(name = "virtualThreadExecutor")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(PROPERTY + " requires a Java 21+ runtime, current is "
+                + Runtime.version(), e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler(
+        ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
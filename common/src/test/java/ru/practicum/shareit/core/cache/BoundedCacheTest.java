@@ -0,0 +1,162 @@
+package ru.practicum.shareit.core.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BoundedCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong ticks = new AtomicLong();
+    private MeterRegistry registry;
+    private Clock clock;
+    private Instant now;
+    private BoundedCache<Integer, String> cache;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenAnswer(invocation -> now);
+        cache = new BoundedCache<>(registry, "test", 10, Duration.ofSeconds(60), clock, String::isEmpty,
+            ticks::incrementAndGet);
+    }
+
+    @Test
+    void get_whenKeyRepeated_thenLoadedOnceAndHitsCounted() {
+        get(1);
+        get(1);
+        get(-1);
+        get(-1);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("negative-hit"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void get_whenTtlExpired_thenReloadedAndEvictionCounted() {
+        get(1);
+        now = now.plusSeconds(60);
+        get(1);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, registry.counter("cache.evictions", "cache", "test").count());
+    }
+
+    @Test
+    void getIfPresent_whenNoTtl_thenKeptUntilInvalidated() {
+        BoundedCache<Integer, String> eternal = new BoundedCache<>(registry, "eternal", 10, null, clock, null);
+        eternal.put(1, "one");
+        now = now.plus(Duration.ofDays(365));
+
+        assertEquals(Optional.of("one"), eternal.getIfPresent(1));
+        eternal.invalidate(1);
+        assertEquals(Optional.empty(), eternal.getIfPresent(1));
+    }
+
+    @Test
+    void put_whenMaxSizeExceeded_thenLeastRecentlyReadTenthEvicted() {
+        for (int key = 1; key <= 10; key++) {
+            get(key);
+        }
+        get(1);
+
+        get(11);
+
+        assertEquals(9, cache.size());
+        assertTrue(cache.getIfPresent(1).isPresent());
+        assertTrue(cache.getIfPresent(2).isEmpty());
+        assertTrue(cache.getIfPresent(3).isEmpty());
+        assertTrue(cache.getIfPresent(11).isPresent());
+        assertEquals(2, registry.counter("cache.evictions", "cache", "test").count());
+        assertEquals(9, registry.get("cache.size").tag("cache", "test").gauge().value());
+    }
+
+    @Test
+    void put_whenMaxSizeExceededWithExpiredEntries_thenExpiredEvictedFirst() {
+        for (int key = 1; key <= 9; key++) {
+            get(key);
+        }
+        now = now.plusSeconds(30);
+        get(10);
+        now = now.plusSeconds(31);
+        get(11);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.getIfPresent(10).isPresent());
+    }
+
+    @Test
+    void get_whenInvalidatedDuringLoad_thenValueReturnedButNotCached() {
+        String value = cache.get(1, key -> {
+            cache.invalidate(2);
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertEquals("value 1", get(1));
+    }
+
+    @Test
+    void invalidateIf_whenPredicateMatches_thenOnlyMatchingEntriesRemoved() {
+        get(1);
+        get(2);
+        get(3);
+
+        cache.invalidateIf((key, value) -> key % 2 == 1);
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.getIfPresent(2).isPresent());
+        assertEquals(2, registry.counter("cache.invalidations", "cache", "test").count());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_whenReadConcurrently_thenSizeStaysBounded() throws Exception {
+        BoundedCache<Integer, String> shared = new BoundedCache<>(registry, "shared", 100, null, clock, null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int seed = thread;
+                tasks.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = random.nextInt(1000);
+                        assertEquals("value " + key, shared.get(key, id -> "value " + id));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(shared.size() <= 100 + 8, "size " + shared.size());
+    }
+
+    private String get(int key) {
+        return cache.get(key, id -> {
+            loads.incrementAndGet();
+            return id > 0 ? "value " + id : "";
+        });
+    }
+
+    private double count(String result) {
+        return registry.counter("cache.gets", "cache", "test", "result", result).count();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.core.concurrent;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class VirtualThreadsConfigTest {
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+        .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    void config_whenFlagOff_thenExecutorsLeftAlone() {
+        runner.withPropertyValues(VirtualThreadsConfig.PROPERTY + "=false").run(context -> {
+            assertTrue(context.getBeansOfType(TomcatProtocolHandlerCustomizer.class).isEmpty());
+            assertTrue(context.getBeansOfType(ExecutorService.class).isEmpty());
+            assertTrue(context.getBeansOfType(AsyncTaskExecutor.class).isEmpty());
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void config_whenFlagOn_thenTomcatAndTaskExecutorUseVirtualThreadExecutor() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "stand-in"));
+
+        try {
+            runner.withPropertyValues(VirtualThreadsConfig.PROPERTY + "=true")
+                .withBean("virtualThreadExecutor", ExecutorService.class, () -> executor)
+                .run(context -> {
+                    ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+                    context.getBean(TomcatProtocolHandlerCustomizer.class).customize(protocolHandler);
+                    verify(protocolHandler).setExecutor(executor);
+
+                    String thread = context.getBean(AsyncTaskExecutor.class)
+                        .submit(() -> Thread.currentThread().getName())
+                        .get(5, TimeUnit.SECONDS);
+                    assertEquals("stand-in", thread);
+                });
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void config_whenFlagOnBeforeJava21_thenStartupFails() {
+        Assumptions.assumeTrue(Runtime.version().feature() < 21);
+
+        runner.withPropertyValues(VirtualThreadsConfig.PROPERTY + "=true").run(context -> {
+            assertNotNull(context.getStartupFailure());
+            assertTrue(context.getStartupFailure().getMessage().contains("requires a Java 21+ runtime"));
+        });
+    }
+
+    @Test
+    void config_whenFlagOnWithJava21_thenTasksRunOnVirtualThreads() {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21);
+
+        runner.withPropertyValues(VirtualThreadsConfig.PROPERTY + "=true").run(context -> {
+            Object virtual = context.getBean(AsyncTaskExecutor.class)
+                .submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                .get(5, TimeUnit.SECONDS);
+            assertEquals(Boolean.TRUE, virtual);
+        });
+    }
+}
@@ -1,60 +1,78 @@
 package ru.practicum.shareit.booking;
 
-import org.springframework.beans.factory.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.*;
-import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.*;
 import ru.practicum.shareit.core.QueryParametersInterface;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+        ServerBalancer balancer, RequestCoalescer coalescer, EtagCache etags) {
         super(
             builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build(),
+            balancer,
+            coalescer,
+            etags
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-            QueryParametersInterface.STATE, state.name(),
-            QueryParametersInterface.FROM, from,
-            QueryParametersInterface.SIZE, size
-        );
+    public CompletableFuture<ResponseEntity<Object>> getBookings(long userId, BookingStatus state, Integer from, Integer size,
+        String cursor, String view) {
+        return getPage("", userId, state, from, size, cursor, view);
+    }
 
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getBookingsForOwner(long userId, BookingStatus state, Integer from, Integer size,
+        String cursor, String view) {
+        return getPage("/owner", userId, state, from, size, cursor, view);
     }
 
-    public ResponseEntity<Object> getBookingsForOwner(long userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-            QueryParametersInterface.STATE, state.name(),
-            QueryParametersInterface.FROM, from,
-            QueryParametersInterface.SIZE, size
-        );
+    private CompletableFuture<ResponseEntity<Object>> getPage(String path, long userId, BookingStatus state, Integer from, Integer size,
+        String cursor, String view) {
+        StringBuilder query = new StringBuilder(path).append("?state={state}&size={size}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(QueryParametersInterface.STATE, state.name());
+        parameters.put(QueryParametersInterface.SIZE, size);
+
+        if (cursor != null) {
+            query.append("&cursor={cursor}");
+            parameters.put(QueryParametersInterface.CURSOR, cursor);
+        } else {
+            query.append("&from={from}");
+            parameters.put(QueryParametersInterface.FROM, from);
+        }
+
+        if (view != null) {
+            query.append("&view={view}");
+            parameters.put(QueryParametersInterface.VIEW, view);
+        }
 
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get(query.toString(), userId, parameters);
     }
 
-    public ResponseEntity<Object> bookItem(long userId, ShortBookingRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, ShortBookingRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, long bookingId, boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(long userId, long bookingId, boolean approved) {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 }
\ No newline at end of file
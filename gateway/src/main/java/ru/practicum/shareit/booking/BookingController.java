@@ -10,6 +10,7 @@ import ru.practicum.shareit.booking.dto.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.*;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -20,36 +21,42 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
         @RequestParam(name = "state", defaultValue = "all") String stateParam,
         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String view) {
         BookingStatus state = BookingStatus.from(stateParam)
             .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}, view={}", stateParam, userId, from,
+            size, cursor, view);
+        return bookingClient.getBookings(userId, state, from, size, cursor, view);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBookingsForOwner(@RequestHeader("X-Sharer-User-Id") long userId,
         @RequestParam(name = "state", defaultValue = "all") String stateParam,
         @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-        @Positive @RequestParam(defaultValue = "10") int size) {
+        @Positive @RequestParam(defaultValue = "10") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String view) {
         BookingStatus state = BookingStatus.from(stateParam)
             .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsForOwner(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}, view={}", stateParam, userId, from,
+            size, cursor, view);
+        return bookingClient.getBookingsForOwner(userId, state, from, size, cursor, view);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
         @RequestBody @Valid ShortBookingRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(
         @RequestHeader("X-Sharer-User-Id") Long userId,
         @PathVariable Long bookingId,
         @RequestParam Boolean approved) {
@@ -57,7 +64,7 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
         @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.*;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * Sends requests with the JDK {@link HttpClient} without holding a thread while they are in flight. It applies the
+ * {@code shareit-server.http} settings of the blocking transport's pool: {@link ConnectionPermits} caps open calls
+ * and reports them under the pool's metric names, {@code read-timeout} bounds the wait for the response and every
+ * read of its body, and {@code keep-alive} bounds how long idle connections are kept.
+ */
+@Component
+@ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = "async", matchIfMissing = true)
+public class AsyncServerTransport implements ServerTransport {
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ConnectionPermits permits;
+    private final Duration readTimeout;
+
+    @Autowired
+    public AsyncServerTransport(ObjectMapper objectMapper, MeterRegistry registry,
+        @Value("${shareit-server.http.max-total}") int maxTotal,
+        @Value("${shareit-server.http.max-per-route}") int maxPerRoute,
+        @Value("${shareit-server.http.connect-timeout}") Duration connectTimeout,
+        @Value("${shareit-server.http.read-timeout}") Duration readTimeout,
+        @Value("${shareit-server.http.connection-request-timeout}") Duration connectionRequestTimeout,
+        @Value("${shareit-server.http.keep-alive}") Duration keepAlive) {
+        this.objectMapper = objectMapper;
+        this.readTimeout = readTimeout;
+        permits = new ConnectionPermits(maxTotal, maxPerRoute, connectionRequestTimeout);
+        permits.bindTo(registry, HttpClientConfig.POOL_NAME);
+        // The JDK client reads its idle connection timeout once, from a system property, so an explicit
+        // -Djdk.httpclient.keepalive.timeout wins and the setting only takes effect before the first client is built.
+        if (System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, String.valueOf(Math.max(1, keepAlive.toSeconds())));
+        }
+        httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .build();
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+        @Nullable Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+            .timeout(readTimeout)
+            .method(method.name(), toBodyPublisher(body));
+        headers.forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+
+        return permits.acquire(uri)
+            .handle((release, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause != null) {
+                    throw GatewayResponses.ioError(method, uri, (IOException) cause);
+                }
+                return release;
+            })
+            .thenCompose(release -> send(method, uri, request.build(), release));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> send(HttpMethod method, URI uri, HttpRequest request,
+        Runnable release) {
+        ResponseBodyStream responseBody = new ResponseBodyStream(readTimeout, release);
+        CompletableFuture<HttpResponse<ResponseBodyStream>> sent;
+        try {
+            sent = httpClient.sendAsync(request, responseInfo -> responseBody);
+        } catch (RuntimeException e) {
+            responseBody.close();
+            throw e;
+        }
+
+        return sent
+            .handle((response, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause != null) {
+                    responseBody.close();
+                }
+                if (cause instanceof IOException) {
+                    throw GatewayResponses.ioError(method, uri, (IOException) cause);
+                }
+                if (cause != null) {
+                    throw new CompletionException(cause);
+                }
+
+                HttpHeaders serverHeaders = new HttpHeaders();
+                response.headers().map().forEach(serverHeaders::addAll);
+                try {
+                    return GatewayResponses.prepareGatewayResponse(response.statusCode(), serverHeaders,
+                        responseBody);
+                } catch (UncheckedIOException e) {
+                    throw GatewayResponses.ioError(method, uri, e.getCause());
+                }
+            });
+    }
+
+    private HttpRequest.BodyPublisher toBodyPublisher(@Nullable Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.*;
+import org.springframework.http.client.*;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+@ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = "blocking")
+@RequiredArgsConstructor
+public class BlockingServerTransport implements ServerTransport {
+    private final ClientHttpRequestFactory requestFactory;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+        @Nullable Object body) {
+        try {
+            ClientHttpRequest request = requestFactory.createRequest(uri, method);
+            request.getHeaders().addAll(headers);
+            if (body != null) {
+                objectMapper.writeValue(request.getBody(), body);
+            }
+            ClientHttpResponse response = request.execute();
+
+            return CompletableFuture.completedFuture(GatewayResponses.prepareGatewayResponse(
+                response.getRawStatusCode(), response.getHeaders(), response.getBody()));
+        } catch (IOException e) {
+            throw GatewayResponses.ioError(method, uri, e);
+        } catch (UncheckedIOException e) {
+            throw GatewayResponses.ioError(method, uri, e.getCause());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the calls the async transport has open, the way the connection pool does for the blocking one: at most
+ * {@code max-total} in all and {@code max-per-route} per server, each held until the response body is read or
+ * closed. A call that finds no free permit waits up to {@code connection-request-timeout} and then fails with the
+ * pool's {@link ConnectionPoolTimeoutException}.
+ */
+final class ConnectionPermits {
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long waitTimeoutNanos;
+    private final Map<String, Integer> leasedPerRoute = new HashMap<>();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int leased;
+
+    ConnectionPermits(int maxTotal, int maxPerRoute, Duration waitTimeout) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * Registers the gauges the connection pool metrics binder registers for the blocking transport, so both
+     * transports report under the same names.
+     */
+    void bindTo(MeterRegistry registry, String poolName) {
+        Gauge.builder("httpcomponents.httpclient.pool.total.max", this, permits -> permits.maxTotal)
+            .tag("httpclient", poolName).register(registry);
+        Gauge.builder("httpcomponents.httpclient.pool.total.connections", this, ConnectionPermits::leased)
+            .tag("httpclient", poolName).tag("state", "leased").register(registry);
+        Gauge.builder("httpcomponents.httpclient.pool.total.pending", this, ConnectionPermits::pending)
+            .tag("httpclient", poolName).register(registry);
+        Gauge.builder("httpcomponents.httpclient.pool.route.max.default", this, permits -> permits.maxPerRoute)
+            .tag("httpclient", poolName).register(registry);
+    }
+
+    /**
+     * Completes with the action that gives the permit back once one is free for the server of {@code uri}, or
+     * fails with a {@link ConnectionPoolTimeoutException} after {@code connection-request-timeout}. The action may
+     * run any number of times.
+     */
+    CompletableFuture<Runnable> acquire(URI uri) {
+        String route = uri.getScheme() + "://" + uri.getAuthority();
+        Waiter waiter = new Waiter(route);
+        synchronized (this) {
+            if (waiters.isEmpty() && hasRoom(route)) {
+                return CompletableFuture.completedFuture(lease(route));
+            }
+            waiters.add(waiter);
+        }
+
+        CompletableFuture.delayedExecutor(waitTimeoutNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+            waiter.future.completeExceptionally(
+                new ConnectionPoolTimeoutException("Timeout waiting for a connection to " + route));
+        });
+        return waiter.future;
+    }
+
+    synchronized int leased() {
+        return leased;
+    }
+
+    synchronized int pending() {
+        return waiters.size();
+    }
+
+    private boolean hasRoom(String route) {
+        return leased < maxTotal && leasedPerRoute.getOrDefault(route, 0) < maxPerRoute;
+    }
+
+    private Runnable lease(String route) {
+        leased++;
+        leasedPerRoute.merge(route, 1, Integer::sum);
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release(route);
+            }
+        };
+    }
+
+    private void release(String route) {
+        List<Map.Entry<Waiter, Runnable>> granted = new ArrayList<>();
+        synchronized (this) {
+            leased--;
+            leasedPerRoute.computeIfPresent(route, (key, count) -> count > 1 ? count - 1 : null);
+            for (Iterator<Waiter> it = waiters.iterator(); it.hasNext() && leased < maxTotal; ) {
+                Waiter waiter = it.next();
+                if (hasRoom(waiter.route)) {
+                    it.remove();
+                    granted.add(Map.entry(waiter, lease(waiter.route)));
+                }
+            }
+        }
+
+        // Completed outside the lock, as the callers go on to send their requests. A waiter that has just timed
+        // out hands its permit straight back.
+        granted.forEach(grant -> {
+            if (!grant.getKey().future.complete(grant.getValue())) {
+                grant.getValue().run();
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class Waiter {
+        private final String route;
+        private final CompletableFuture<Runnable> future = new CompletableFuture<>();
+    }
+}
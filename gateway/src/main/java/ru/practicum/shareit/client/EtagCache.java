@@ -0,0 +1,104 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.util.*;
+import ru.practicum.shareit.core.cache.BoundedCache;
+
+import java.io.*;
+import java.net.URI;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+public class EtagCache {
+    private static final String NAME = "etag";
+    private final List<String> paths;
+    private final PathMatcher matcher = new AntPathMatcher();
+    private final BoundedCache<Key, Entry> entries;
+    private final Counter notModified;
+    private final Counter modified;
+
+    @Autowired
+    public EtagCache(MeterRegistry registry, @Value("${shareit-server.etag-cache.max-size}") int maxSize,
+        @Value("${shareit-server.etag-cache.paths}") List<String> paths) {
+        this.paths = paths;
+        entries = new BoundedCache<>(registry, NAME, maxSize, null, Clock.systemUTC(), null);
+        notModified = registry.counter("cache.revalidations", "cache", NAME, "result", "not-modified");
+        modified = registry.counter("cache.revalidations", "cache", NAME, "result", "modified");
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> get(URI uri, Long userId, HttpHeaders headers,
+        Function<HttpHeaders, CompletableFuture<ResponseEntity<Object>>> call) {
+        if (paths.stream().noneMatch(path -> matcher.match(path, uri.getPath()))) {
+            return call.apply(headers);
+        }
+
+        Key key = new Key(uri, userId);
+        Entry cached = entries.getIfPresent(key).orElse(null);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.etag);
+        }
+
+        return call.apply(headers).thenApply(response -> revalidate(key, cached, response));
+    }
+
+    private ResponseEntity<Object> revalidate(Key key, Entry cached, ResponseEntity<Object> response) {
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            notModified.increment();
+            return ResponseEntity.ok().headers(cached.headers).body(cached.body);
+        }
+
+        if (cached != null) {
+            modified.increment();
+        }
+        String etag = response.getHeaders().getETag();
+        if (!response.getStatusCode().is2xxSuccessful() || etag == null || etag.startsWith("W/")) {
+            entries.invalidate(key);
+            return response;
+        }
+
+        Entry loaded = new Entry(etag, response.getHeaders(), toBytes(response.getBody()));
+        entries.put(key, loaded);
+
+        return ResponseEntity.status(response.getStatusCodeValue()).headers(loaded.headers).body(loaded.body);
+    }
+
+    private static byte[] toBytes(Object body) {
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        if (body == null) {
+            return new byte[0];
+        }
+
+        try (InputStream in = ((Resource) body).getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final URI uri;
+        private final Long userId;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String etag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.*;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.*;
+import java.net.URI;
+import java.util.*;
+
+final class GatewayResponses {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+        "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization", "date");
+
+    private GatewayResponses() {
+    }
+
+    static ResponseEntity<Object> prepareGatewayResponse(int status, HttpHeaders serverHeaders, InputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status).headers(headers);
+
+        if (HttpStatus.Series.resolve(status) == HttpStatus.Series.SUCCESSFUL && headers.getContentType() != null) {
+            return responseBuilder.body(new InputStreamResource(body));
+        }
+
+        try (body) {
+            byte[] bytes = StreamUtils.copyToByteArray(body);
+            if (bytes.length > 0) {
+                return responseBuilder.body(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return responseBuilder.build();
+    }
+
+    static ResourceAccessException ioError(HttpMethod method, URI uri, IOException e) {
+        return new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+            + e.getMessage(), e);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.*;
+import org.springframework.http.client.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class HttpClientConfig {
+    static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager(
+        @Value("${shareit-server.http.max-total}") int maxTotal,
+        @Value("${shareit-server.http.max-per-route}") int maxPerRoute,
+        @Value("${shareit-server.http.validate-after-inactivity}") Duration validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        return connectionManager;
+    }
+
+    /**
+     * Pool metrics only for the blocking transport, which is the one using the pool. The async transport reports
+     * under the same names from its {@link ConnectionPermits}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = ServerTransport.PROPERTY, havingValue = "blocking")
+    public MeterBinder connectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME);
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+        @Value("${shareit-server.http.connect-timeout}") Duration connectTimeout,
+        @Value("${shareit-server.http.read-timeout}") Duration readTimeout,
+        @Value("${shareit-server.http.connection-request-timeout}") Duration connectionRequestTimeout,
+        @Value("${shareit-server.http.keep-alive}") Duration keepAlive) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout((int) connectTimeout.toMillis())
+            .setSocketTimeout((int) readTimeout.toMillis())
+            .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> {
+                long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return advertised > 0 ? Math.min(advertised, keepAlive.toMillis()) : keepAlive.toMillis();
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS)
+            .disableAutomaticRetries()
+            .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory requestFactory(HttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+import java.util.regex.Pattern;
+
+/**
+ * Guards calls to the server with an AIMD concurrency limit and a circuit breaker per endpoint. Calls over
+ * the limit or to an open endpoint fail at once with {@link ServerUnavailableException} instead of queueing.
+ */
+@Component
+public class LoadShedder {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Set<Integer> OVERLOAD_STATUSES = Set.of(HttpStatus.BAD_GATEWAY.value(),
+        HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.GATEWAY_TIMEOUT.value());
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final Counter shedByLimit;
+    private final LongSupplier nanoClock;
+    private volatile double limit;
+
+    @Autowired
+    public LoadShedder(MeterRegistry registry,
+        @Value("${shareit-server.load-shedding.initial-limit}") int initialLimit,
+        @Value("${shareit-server.load-shedding.min-limit}") int minLimit,
+        @Value("${shareit-server.load-shedding.max-limit}") int maxLimit,
+        @Value("${shareit-server.load-shedding.backoff-ratio}") double backoffRatio,
+        @Value("${shareit-server.load-shedding.latency-threshold}") Duration latencyThreshold,
+        @Value("${shareit-server.circuit-breaker.failure-threshold}") int failureThreshold,
+        @Value("${shareit-server.circuit-breaker.open-duration}") Duration openDuration) {
+        this(registry, initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold, failureThreshold,
+            openDuration, System::nanoTime);
+    }
+
+    LoadShedder(MeterRegistry registry, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+        Duration latencyThreshold, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.nanoClock = nanoClock;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        latencyThresholdNanos = latencyThreshold.toNanos();
+        this.failureThreshold = failureThreshold;
+        openNanos = openDuration.toNanos();
+        limit = initialLimit;
+        shedByLimit = registry.counter("gateway.requests.shed", "reason", "concurrency-limit");
+        Gauge.builder("gateway.concurrency.limit", this, shedder -> shedder.limit).register(registry);
+        Gauge.builder("gateway.concurrency.in-flight", inFlight, AtomicInteger::get).register(registry);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> call(HttpMethod method, URI uri,
+        Supplier<CompletableFuture<ResponseEntity<Object>>> call) {
+        String endpoint = method + " " + ID_SEGMENT.matcher(uri.getPath()).replaceAll("/{id}");
+        CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, CircuitBreaker::new);
+        long start = nanoClock.getAsLong();
+
+        if (!breaker.allow(start)) {
+            registry.counter("gateway.requests.shed", "reason", "circuit-open").increment();
+            return CompletableFuture.failedFuture(new ServerUnavailableException(
+                "Server endpoint " + endpoint + " is failing, circuit is open", breaker.retryAfterSeconds(start)));
+        }
+        if (!tryAcquire()) {
+            breaker.release();
+            shedByLimit.increment();
+            return CompletableFuture.failedFuture(new ServerUnavailableException(
+                "Too many concurrent requests to the server", 1));
+        }
+
+        CompletableFuture<ResponseEntity<Object>> response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.whenComplete((result, error) -> {
+            long now = nanoClock.getAsLong();
+            boolean failed = isServerFailure(result, error);
+            release(now - start, failed);
+            breaker.record(failed, now);
+        });
+    }
+
+    /**
+     * Only I/O errors, timeouts and 502/503/504 say the server is in trouble. Other 5xx responses are the
+     * server's answer to this particular request (it maps some client mistakes to 500) and count as successes.
+     */
+    private static boolean isServerFailure(ResponseEntity<Object> response, Throwable error) {
+        if (error == null) {
+            return OVERLOAD_STATUSES.contains(response.getStatusCodeValue());
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof ResourceAccessException || cause instanceof IOException
+            || cause instanceof TimeoutException;
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long latencyNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (current * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Opens after {@code failure-threshold} consecutive failures (I/O errors, timeouts and 502/503/504) and lets a
+     * single trial call through once {@code open-duration} has passed.
+     */
+    private class CircuitBreaker {
+        private final String endpoint;
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+        private boolean trialRunning;
+
+        CircuitBreaker(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized boolean allow(long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialRunning) {
+                    return false;
+                }
+                trialRunning = true;
+            }
+
+            return state != State.OPEN;
+        }
+
+        synchronized void release() {
+            trialRunning = false;
+        }
+
+        synchronized long retryAfterSeconds(long now) {
+            long waitNanos = state == State.OPEN ? openedAt + openNanos - now : 0;
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+
+        synchronized void record(boolean failed, long now) {
+            if (state == State.HALF_OPEN) {
+                trialRunning = false;
+                if (failed) {
+                    open(now);
+                } else {
+                    state = State.CLOSED;
+                    failures = 0;
+                }
+            } else if (state == State.CLOSED) {
+                failures = failed ? failures + 1 : 0;
+                if (failures >= failureThreshold) {
+                    open(now);
+                }
+            }
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+            failures = 0;
+            registry.counter("gateway.circuit-breaker.opened", "endpoint", endpoint).increment();
+        }
+    }
+}
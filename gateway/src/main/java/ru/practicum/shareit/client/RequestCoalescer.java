@@ -0,0 +1,94 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.*;
+
+import java.io.*;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical GETs to the {@code shareit-server.coalesce.paths} endpoints share one server call.
+ *
+ * <p>Calls are keyed by the full URI (path and query) and the {@code X-Sharer-User-Id}. The user id has to be part
+ * of the key: the server answers {@code /items/{id}} with the last and next bookings only for the item's owner, and
+ * {@code /requests/all} leaves out the caller's own requests, so the same URI gives different bodies to different
+ * users.
+ */
+@Component
+public class RequestCoalescer {
+    private final List<String> paths;
+    private final PathMatcher matcher = new AntPathMatcher();
+    private final ConcurrentMap<Key, CompletableFuture<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    @Autowired
+    public RequestCoalescer(MeterRegistry registry, @Value("${shareit-server.coalesce.paths}") List<String> paths) {
+        this.paths = paths;
+        coalesced = registry.counter("gateway.requests.coalesced");
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> get(URI uri, Long userId,
+        Supplier<CompletableFuture<ResponseEntity<Object>>> call) {
+        if (paths.stream().noneMatch(path -> matcher.match(path, uri.getPath()))) {
+            return call.get();
+        }
+
+        Key key = new Key(uri, userId);
+        CompletableFuture<ResponseEntity<Object>> shared = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        try {
+            call.get()
+                .thenApply(RequestCoalescer::buffer)
+                .whenComplete((response, error) -> {
+                    inFlight.remove(key, shared);
+                    if (error != null) {
+                        shared.completeExceptionally(error);
+                    } else {
+                        shared.complete(response);
+                    }
+                });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+        }
+
+        return shared;
+    }
+
+    private static ResponseEntity<Object> buffer(ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof Resource)) {
+            return response;
+        }
+
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            return ResponseEntity.status(response.getStatusCodeValue())
+                .headers(response.getHeaders())
+                .body(StreamUtils.copyToByteArray(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final URI uri;
+        private final Long userId;
+    }
+}
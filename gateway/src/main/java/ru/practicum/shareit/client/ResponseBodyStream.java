@@ -0,0 +1,153 @@
+package ru.practicum.shareit.client;
+
+import java.io.*;
+import java.net.http.*;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body of the async transport read as an {@link InputStream}. Unlike the JDK's own stream, a read that
+ * gets no data within {@code read-timeout} fails, as a socket read of the blocking transport does. The connection
+ * permit is given back at the end of the body or when the stream is closed.
+ */
+final class ResponseBodyStream extends InputStream implements HttpResponse.BodySubscriber<ResponseBodyStream> {
+    private static final Object END = new Object();
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+    private final long readTimeoutNanos;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Flow.Subscription subscription;
+    private Iterator<ByteBuffer> current = Collections.emptyIterator();
+    private ByteBuffer buffer;
+    private boolean done;
+
+    ResponseBodyStream(Duration readTimeout, Runnable release) {
+        readTimeoutNanos = readTimeout.toNanos();
+        this.release = release;
+    }
+
+    /**
+     * Hands the stream over as soon as the headers are in, so the body is read as it arrives.
+     */
+    @Override
+    public CompletionStage<ResponseBodyStream> getBody() {
+        return CompletableFuture.completedStage(this);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (closed.get()) {
+            subscription.cancel();
+        } else {
+            subscription.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        chunks.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        chunks.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        chunks.add(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer next = nextBuffer();
+        return next != null ? next.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+
+        ByteBuffer next = nextBuffer();
+        if (next == null) {
+            return -1;
+        }
+        int read = Math.min(length, next.remaining());
+        next.get(bytes, offset, read);
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return buffer != null ? buffer.remaining() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        Flow.Subscription subscribed = subscription;
+        if (!done && subscribed != null) {
+            subscribed.cancel();
+        }
+        release.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ByteBuffer nextBuffer() throws IOException {
+        while (buffer == null || !buffer.hasRemaining()) {
+            if (current.hasNext()) {
+                buffer = current.next();
+                continue;
+            }
+            if (done) {
+                return null;
+            }
+            if (closed.get()) {
+                throw new IOException("Response body is closed");
+            }
+
+            Object chunk = poll();
+            if (chunk == END) {
+                done = true;
+                release.run();
+                return null;
+            }
+            if (chunk instanceof Throwable) {
+                done = true;
+                release.run();
+                throw chunk instanceof IOException ? (IOException) chunk : new IOException((Throwable) chunk);
+            }
+            current = ((List<ByteBuffer>) chunk).iterator();
+            subscription.request(1);
+        }
+
+        return buffer;
+    }
+
+    private Object poll() throws IOException {
+        Object chunk;
+        try {
+            chunk = chunks.poll(readTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new InterruptedIOException();
+        }
+
+        if (chunk == null) {
+            close();
+            throw new HttpTimeoutException("Read timed out");
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,340 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Function;
+import java.util.regex.*;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads server calls over the {@code shareit-server.url} instances, by load or on a consistent-hash ring keyed by
+ * item or user, ejects failing instances until their health check passes and hedges slow GETs.
+ */
+@Slf4j
+@Component
+public class ServerBalancer implements DisposableBean {
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Pattern USER_PATH = Pattern.compile("/users/(\\d+)");
+    private static final Pattern ITEM_PATH = Pattern.compile("/items/(\\d+)(/.*)?");
+    private final List<Instance> instances;
+    private final Routing routing;
+    private final NavigableMap<Long, Instance> ring = new TreeMap<>();
+    private final ServerTransport transport;
+    private final LoadShedder shedder;
+    private final Function<URI, CompletableFuture<Integer>> healthProbe;
+    private final ScheduledExecutorService scheduler;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final Timer latency;
+    private final Counter hedges;
+    private final AtomicLong nextHedgeDelayRefresh = new AtomicLong(System.nanoTime());
+    private volatile long hedgeDelayNanos;
+
+    @Autowired
+    public ServerBalancer(MeterRegistry registry, ServerTransport transport, LoadShedder shedder,
+        @Value("${shareit-server.url}") List<String> urls,
+        @Value("${shareit-server.health-check.interval}") Duration healthCheckInterval,
+        @Value("${shareit-server.health-check.timeout}") Duration healthCheckTimeout,
+        @Value("${shareit-server.hedge.enabled}") boolean hedgeEnabled,
+        @Value("${shareit-server.hedge.percentile}") double hedgePercentile,
+        @Value("${shareit-server.hedge.min-delay}") Duration minHedgeDelay,
+        @Value("${shareit-server.routing.mode}") Routing routing,
+        @Value("${shareit-server.routing.virtual-nodes}") int virtualNodes) {
+        this(registry, transport, shedder, urls, healthCheckInterval, hedgeEnabled, hedgePercentile, minHedgeDelay,
+            routing, virtualNodes, httpHealthProbe(healthCheckTimeout));
+    }
+
+    ServerBalancer(MeterRegistry registry, ServerTransport transport, LoadShedder shedder, List<String> urls,
+        Duration healthCheckInterval, boolean hedgeEnabled, double hedgePercentile, Duration minHedgeDelay,
+        Routing routing, int virtualNodes, Function<URI, CompletableFuture<Integer>> healthProbe) {
+        this.transport = transport;
+        this.shedder = shedder;
+        this.healthProbe = healthProbe;
+        instances = urls.stream()
+            .map(url -> new Instance(url.trim().replaceAll("/+$", "")))
+            .collect(Collectors.toList());
+        this.routing = routing;
+        for (Instance instance : instances) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(ringPosition(instance.url + "#" + i), instance);
+            }
+        }
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        minHedgeDelayNanos = minHedgeDelay.toNanos();
+        hedgeDelayNanos = minHedgeDelayNanos;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "server-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        latency = Timer.builder("gateway.server.latency")
+            .publishPercentiles(hedgePercentile)
+            .register(registry);
+        hedges = registry.counter("gateway.requests.hedged");
+        Gauge.builder("gateway.server.instances.healthy", instances,
+            all -> all.stream().filter(instance -> instance.healthy).count()).register(registry);
+
+        if (instances.size() > 1) {
+            scheduler.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends a call with a path-only {@code uri} to one of the instances.
+     */
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+        @Nullable Object body) {
+        Long key = routingKey(uri, headers);
+        Instance primary = choose(key, null);
+        CompletableFuture<ResponseEntity<Object>> first = send(primary, method, uri, headers, body);
+        // The blocking transport has answered by now, so only async calls are hedged.
+        if (!hedgeEnabled || method != HttpMethod.GET || instances.size() < 2 || first.isDone()) {
+            return first;
+        }
+
+        CompletableFuture<ResponseEntity<Object>> result = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger(1);
+        first.whenComplete((response, error) -> settle(result, attempts, response, error));
+        ScheduledFuture<?> hedge = scheduler.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            attempts.incrementAndGet();
+            hedges.increment();
+            send(choose(key, primary), method, uri, headers, body)
+                .whenComplete((response, error) -> settle(result, attempts, response, error));
+        }, hedgeDelay(), TimeUnit.NANOSECONDS);
+        result.whenComplete((response, error) -> hedge.cancel(false));
+
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    void checkHealth() {
+        for (Instance instance : instances) {
+            healthProbe.apply(URI.create(instance.url + "/actuator/health"))
+                .whenComplete((status, error) -> {
+                    boolean healthy = error == null && status == HttpStatus.OK.value();
+                    if (healthy != instance.healthy) {
+                        log.warn("Server instance {} is {}", instance.url, healthy ? "healthy" : "unhealthy");
+                    }
+                    instance.healthy = healthy;
+                });
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> send(Instance instance, HttpMethod method, URI uri,
+        HttpHeaders headers, @Nullable Object body) {
+        long start = System.nanoTime();
+        instance.outstanding.incrementAndGet();
+        // A shed attempt fails with ServerUnavailableException, which does not eject the instance.
+        CompletableFuture<ResponseEntity<Object>> response = shedder.call(method, uri,
+            () -> transport.exchange(method, instance.resolve(uri), headers, body));
+
+        return response.whenComplete((result, error) -> {
+            instance.outstanding.decrementAndGet();
+            if (error == null) {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof ResourceAccessException
+                && !(cause.getCause() instanceof ConnectionPoolTimeoutException)) {
+                eject(instance, cause);
+            }
+        });
+    }
+
+    private static void settle(CompletableFuture<ResponseEntity<Object>> result, AtomicInteger attempts,
+        ResponseEntity<Object> response, Throwable error) {
+        if (error != null) {
+            if (attempts.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        } else if (!result.complete(response) && response.getBody() instanceof Resource) {
+            // The losing response holds a connection permit until its body is closed.
+            try {
+                ((Resource) response.getBody()).getInputStream().close();
+            } catch (IOException e) {
+                log.debug("Failed to discard hedged response body", e);
+            }
+        }
+    }
+
+    /**
+     * Ring position of the call, or {@code null} to balance it by load. Calls about one item go to the instance
+     * whose caches hold it, whoever the caller is.
+     */
+    @Nullable
+    private Long routingKey(URI uri, HttpHeaders headers) {
+        if (routing != Routing.USER_HASH) {
+            return null;
+        }
+
+        Matcher item = ITEM_PATH.matcher(uri.getPath());
+        if (item.matches()) {
+            return mix(Long.parseLong(item.group(1)));
+        }
+        String userId = headers.getFirst(USER_HEADER);
+        if (userId != null) {
+            return mix(Long.parseLong(userId));
+        }
+        Matcher user = USER_PATH.matcher(uri.getPath());
+
+        return user.matches() ? mix(Long.parseLong(user.group(1))) : null;
+    }
+
+    private Instance choose(@Nullable Long key, @Nullable Instance excluded) {
+        return key != null ? owner(key, excluded) : leastLoaded(excluded);
+    }
+
+    /**
+     * The first healthy instance clockwise from {@code position}, or the first one at all if none is healthy.
+     */
+    private Instance owner(long position, @Nullable Instance excluded) {
+        Instance fallback = null;
+        for (Collection<Instance> arc : List.of(ring.tailMap(position).values(), ring.headMap(position).values())) {
+            for (Instance instance : arc) {
+                if (instance == excluded) {
+                    continue;
+                }
+                if (instance.healthy) {
+                    return instance;
+                }
+                if (fallback == null) {
+                    fallback = instance;
+                }
+            }
+        }
+
+        return fallback != null ? fallback : instances.get(0);
+    }
+
+    private Instance leastLoaded(@Nullable Instance excluded) {
+        List<Instance> candidates = instances.stream()
+            .filter(instance -> instance.healthy && instance != excluded)
+            .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            candidates = instances.stream()
+                .filter(instance -> instance != excluded)
+                .collect(Collectors.toList());
+        }
+        if (candidates.isEmpty()) {
+            return instances.get(0);
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        Instance one = candidates.get(first);
+        Instance other = candidates.get(second >= first ? second + 1 : second);
+
+        return one.outstanding.get() <= other.outstanding.get() ? one : other;
+    }
+
+    private long hedgeDelay() {
+        long now = System.nanoTime();
+        long due = nextHedgeDelayRefresh.get();
+        if (now - due >= 0 && nextHedgeDelayRefresh.compareAndSet(due, now + HEDGE_DELAY_REFRESH_NANOS)) {
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                if (value.percentile() == hedgePercentile) {
+                    hedgeDelayNanos = Math.max(minHedgeDelayNanos, (long) value.value(TimeUnit.NANOSECONDS));
+                }
+            }
+        }
+
+        return hedgeDelayNanos;
+    }
+
+    private void eject(Instance instance, Throwable error) {
+        if (instances.size() > 1 && instance.healthy) {
+            instance.healthy = false;
+            log.warn("Ejected server instance {}: {}", instance.url, error.getMessage());
+        }
+    }
+
+    private static Function<URI, CompletableFuture<Integer>> httpHealthProbe(Duration timeout) {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+
+        return uri -> client.sendAsync(HttpRequest.newBuilder(uri).timeout(timeout).GET().build(),
+            HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private static long ringPosition(String node) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(node.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads sequential ids evenly over the ring.
+     */
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public enum Routing {
+        LEAST_LOADED, USER_HASH
+    }
+
+    private static class Instance {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        Instance(String url) {
+            this.url = url;
+        }
+
+        URI resolve(URI uri) {
+            return URI.create(url + uri);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.*;
+import org.springframework.lang.Nullable;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+public interface ServerTransport {
+    String PROPERTY = "shareit-server.client.mode";
+
+    CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+        @Nullable Object body);
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+
+@Getter
+public class ServerUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServerUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
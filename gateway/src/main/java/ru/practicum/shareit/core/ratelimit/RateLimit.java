@@ -0,0 +1,34 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class RateLimit {
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    public RateLimit(int capacity, Duration period) {
+        if (capacity <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+        this.capacity = capacity;
+        intervalNanos = period.toNanos() / capacity;
+        burstNanos = intervalNanos * (capacity - 1);
+    }
+
+    /**
+     * Parses {@code <capacity>/<period>}, e.g. {@code 20/1s}: a bucket of 20 tokens that refills completely
+     * every second.
+     */
+    public static RateLimit parse(String value) {
+        String[] parts = value.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must look like <capacity>/<period>: " + value);
+        }
+
+        return new RateLimit(Integer.parseInt(parts[0].trim()), Duration.parse("PT" + parts[1].trim()));
+    }
+}
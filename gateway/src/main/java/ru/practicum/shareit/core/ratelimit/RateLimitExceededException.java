@@ -0,0 +1,13 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String client, String endpoint, long retryAfterSeconds) {
+        super("Too many requests to " + endpoint + " from " + client);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
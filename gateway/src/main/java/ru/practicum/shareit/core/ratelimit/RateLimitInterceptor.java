@@ -0,0 +1,45 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.*;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+        Long userId = parseUserId(request.getHeader(USER_HEADER));
+        if (userId != null) {
+            rateLimiter.acquire(userId, endpoint);
+        } else {
+            rateLimiter.acquireAnonymous(request.getRemoteAddr(), endpoint);
+        }
+        return true;
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.*;
+
+@Component
+public class RateLimiter {
+    private static final String OTHER_ENDPOINTS = "*";
+    private static final int EVICTION_SAMPLE = 16;
+    private final RateLimit defaultLimit;
+    private final Map<String, RateLimit> endpointLimits = new HashMap<>();
+    private final int maxBuckets;
+    private final long sweepIntervalNanos;
+    private final ConcurrentMap<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+    private final MeterRegistry registry;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(MeterRegistry registry, @Value("${rate-limit.default}") String defaultLimit,
+        @Value("${rate-limit.endpoints}") List<String> endpointLimits,
+        @Value("${rate-limit.max-buckets}") int maxBuckets,
+        @Value("${rate-limit.sweep-interval}") Duration sweepInterval) {
+        this(registry, defaultLimit, endpointLimits, maxBuckets, sweepInterval, System::nanoTime);
+    }
+
+    RateLimiter(MeterRegistry registry, String defaultLimit, List<String> endpointLimits, int maxBuckets,
+        Duration sweepInterval, LongSupplier nanoClock) {
+        this.registry = registry;
+        this.nanoClock = nanoClock;
+        this.defaultLimit = RateLimit.parse(defaultLimit);
+        for (String endpointLimit : endpointLimits) {
+            int separator = endpointLimit.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Endpoint limit must look like <pattern>=<limit>: " + endpointLimit);
+            }
+            this.endpointLimits.put(endpointLimit.substring(0, separator).trim(),
+                RateLimit.parse(endpointLimit.substring(separator + 1)));
+        }
+        this.maxBuckets = maxBuckets;
+        sweepIntervalNanos = sweepInterval.toNanos();
+        nextSweep = new AtomicLong(nanoClock.getAsLong());
+        Gauge.builder("gateway.rate-limit.buckets", buckets, Map::size).register(registry);
+    }
+
+    /**
+     * Takes a token from the user's bucket for the endpoint pattern. Endpoints without a limit of their own
+     * share one bucket per user. Once {@code rate-limit.max-buckets} buckets are live, a user without one takes
+     * the place of the idlest of a random sample of buckets, so newcomers are never throttled by the cap.
+     *
+     * @throws RateLimitExceededException when the bucket is empty
+     */
+    public void acquire(long userId, String endpoint) {
+        acquire(new Client(userId, null), endpoint);
+    }
+
+    /**
+     * Same as {@link #acquire(long, String)} for requests without a user id, with buckets kept per remote
+     * address instead.
+     */
+    public void acquireAnonymous(String remoteAddress, String endpoint) {
+        acquire(new Client(null, remoteAddress), endpoint);
+    }
+
+    private void acquire(Client client, String endpoint) {
+        String limited = endpointLimits.containsKey(endpoint) ? endpoint : OTHER_ENDPOINTS;
+        RateLimit limit = endpointLimits.getOrDefault(limited, defaultLimit);
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+
+        Key key = new Key(client, limited);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null && buckets.size() >= maxBuckets) {
+            evictIdlest(now);
+        }
+
+        long waitNanos = (bucket != null ? bucket : buckets.computeIfAbsent(key, created -> new Bucket(now)))
+            .tryAcquire(now, limit);
+        if (waitNanos > 0) {
+            throttle(client, endpoint, limited, waitNanos);
+        }
+    }
+
+    private void throttle(Client client, String endpoint, String limited, long waitNanos) {
+        registry.counter("gateway.requests.throttled", "endpoint", limited).increment();
+        long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        throw new RateLimitExceededException(client.toString(), endpoint, Math.max(1, retryAfterSeconds));
+    }
+
+    /**
+     * Drops the first full bucket among the sampled ones, or else the sampled bucket that refills soonest,
+     * i.e. the least used one relative to its limit.
+     */
+    private void evictIdlest(long now) {
+        Map.Entry<Key, Bucket> idlest = null;
+        for (Map.Entry<Key, Bucket> entry : sample()) {
+            if (idlest == null || entry.getValue().fullAt.get() - idlest.getValue().fullAt.get() < 0) {
+                idlest = entry;
+            }
+            if (entry.getValue().isFull(now)) {
+                break;
+            }
+        }
+
+        if (idlest != null && buckets.remove(idlest.getKey(), idlest.getValue())) {
+            registry.counter("gateway.rate-limit.evictions").increment();
+        }
+    }
+
+    /**
+     * Picks up to {@value #EVICTION_SAMPLE} buckets from a random part of the map: the map's spliterator is
+     * halved, keeping a random half each time, until about that many buckets are left. This costs O(log n)
+     * instead of a walk over the whole map.
+     */
+    List<Map.Entry<Key, Bucket>> sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Spliterator<Map.Entry<Key, Bucket>> part = buckets.entrySet().spliterator();
+        while (part.estimateSize() > EVICTION_SAMPLE) {
+            Spliterator<Map.Entry<Key, Bucket>> prefix = part.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (random.nextBoolean()) {
+                part = prefix;
+            }
+        }
+
+        List<Map.Entry<Key, Bucket>> sample = StreamSupport.stream(part, false)
+            .limit(EVICTION_SAMPLE)
+            .collect(Collectors.toList());
+        return sample.isEmpty()
+            ? buckets.entrySet().stream().limit(EVICTION_SAMPLE).collect(Collectors.toList())
+            : sample;
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Client {
+        private final Long userId;
+        private final String remoteAddress;
+
+        @Override
+        public String toString() {
+            return userId != null ? "user " + userId : "address " + remoteAddress;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final Client client;
+        private final String endpoint;
+    }
+
+    /**
+     * Token bucket kept as the time at which it would be completely full again (GCRA), so that taking a
+     * token is a single compare-and-set.
+     */
+    private static class Bucket {
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            fullAt = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now, RateLimit limit) {
+            while (true) {
+                long current = fullAt.get();
+                long base = now - current > 0 ? now : current;
+                long waitNanos = base - now - limit.getBurstNanos();
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, base + limit.getIntervalNanos())) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return now - fullAt.get() >= 0;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.handler;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.http.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.client.ServerUnavailableException;
+import ru.practicum.shareit.core.ratelimit.RateLimitExceededException;
 
 @RestControllerAdvice
 public class ErrorHandler {
@@ -17,4 +19,18 @@ public class ErrorHandler {
     public ErrorResponse handleStatusException(final IllegalArgumentException exception) {
         return new ErrorResponse(exception.getMessage());
     }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(final RateLimitExceededException exception) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+            .body(new ErrorResponse(exception.getMessage()));
+    }
+
+    @ExceptionHandler(ServerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServerUnavailableException(final ServerUnavailableException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+            .body(new ErrorResponse(exception.getMessage()));
+    }
 }
\ No newline at end of file
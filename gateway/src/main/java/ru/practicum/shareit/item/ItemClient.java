@@ -1,40 +1,45 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
-import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.*;
 import ru.practicum.shareit.core.QueryParametersInterface;
 import ru.practicum.shareit.item.dto.*;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+        ServerBalancer balancer, RequestCoalescer coalescer, EtagCache etags) {
         super(
             builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build(),
+            balancer,
+            coalescer,
+            etags
         );
     }
 
-    public ResponseEntity<Object> saveItem(long userId, ItemRequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> saveItem(long userId, ItemRequestDto dto) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> saveComment(long userId, long itemId, CommentRequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> saveComment(long userId, long itemId, CommentRequestDto dto) {
         return post("/" + itemId + "/comment", userId, dto);
     }
 
-    public ResponseEntity<Object> getItems(long userId, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> getItems(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
             QueryParametersInterface.FROM, from,
             QueryParametersInterface.SIZE, size
@@ -43,15 +48,28 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> getItemById(long userId, long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, ItemRequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> getComments(long userId, long itemId, String cursor, int size) {
+        StringBuilder query = new StringBuilder("/" + itemId + "/comments?size={size}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(QueryParametersInterface.SIZE, size);
+
+        if (cursor != null) {
+            query.append("&cursor={cursor}");
+            parameters.put(QueryParametersInterface.CURSOR, cursor);
+        }
+
+        return get(query.toString(), userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> updateItem(long userId, long itemId, ItemRequestDto dto) {
         return patch("/" + itemId, userId, dto);
     }
 
-    public ResponseEntity<Object> search(long userId, String text, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> search(long userId, String text, int from, int size) {
         Map<String, Object> parameters = Map.of(
             QueryParametersInterface.TEXT, text,
             QueryParametersInterface.FROM, from,
@@ -10,6 +10,7 @@ import ru.practicum.shareit.item.dto.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.*;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -20,7 +21,7 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> save(
+    public CompletableFuture<ResponseEntity<Object>> save(
         @RequestHeader("X-Sharer-User-Id") Long userId,
         @Valid @RequestBody ItemRequestDto dto) {
         log.info("Creating item {}, userId {}", dto, userId);
@@ -28,7 +29,7 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> save(
+    public CompletableFuture<ResponseEntity<Object>> save(
         @RequestHeader("X-Sharer-User-Id") Long userId,
         @PathVariable Long itemId,
         @Valid @RequestBody CommentRequestDto dto) {
@@ -36,8 +37,17 @@ public class ItemController {
         return itemClient.saveComment(userId, itemId, dto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public CompletableFuture<ResponseEntity<Object>> findComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+        @PathVariable Long itemId,
+        @RequestParam(required = false) String cursor,
+        @Positive @RequestParam(defaultValue = "10", required = false) Integer size) {
+        log.info("Get comments for item with id {}, cursor {}, size {}", itemId, cursor, size);
+        return itemClient.getComments(userId, itemId, cursor, size);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
         @PathVariable Long itemId,
         @RequestBody ItemRequestDto dto) {
         log.info("Updating item with id {}", itemId);
@@ -45,13 +55,13 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
         log.info("Get item with id {}", itemId);
         return itemClient.getItemById(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
         @PositiveOrZero @RequestParam(defaultValue = "0", required = false) Integer from,
         @Positive @RequestParam(defaultValue = "10", required = false) Integer size) {
         log.info("Get all items, userId {}", userId);
@@ -59,7 +69,7 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> search(@RequestHeader("X-Sharer-User-Id") Long userId,
         @RequestParam String text,
         @PositiveOrZero @RequestParam(defaultValue = "0", required = false) Integer from,
         @Positive @RequestParam(defaultValue = "10", required = false) Integer size) {
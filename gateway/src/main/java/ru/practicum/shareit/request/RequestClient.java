@@ -1,49 +1,70 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.beans.factory.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
-import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.*;
 import ru.practicum.shareit.core.QueryParametersInterface;
 import ru.practicum.shareit.request.dto.RequestDto;
 
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+        ServerBalancer balancer, RequestCoalescer coalescer, EtagCache etags) {
         super(
             builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build(),
+            balancer,
+            coalescer,
+            etags
         );
     }
 
-    public ResponseEntity<Object> save(long userId, RequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> save(long userId, RequestDto dto) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> findById(long userId, long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> findAll(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> findAll(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> findAllFromOtherUsers(long userId, int from, int size) {
+    public CompletableFuture<ResponseEntity<Object>> findAll(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
             QueryParametersInterface.FROM, from,
             QueryParametersInterface.SIZE, size
         );
 
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}", userId, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> findAllFromOtherUsers(long userId, int from, int size, String cursor) {
+        StringBuilder query = new StringBuilder("/all?size={size}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(QueryParametersInterface.SIZE, size);
+
+        if (cursor != null) {
+            query.append("&cursor={cursor}");
+            parameters.put(QueryParametersInterface.CURSOR, cursor);
+        } else {
+            query.append("&from={from}");
+            parameters.put(QueryParametersInterface.FROM, from);
+        }
+
+        return get(query.toString(), userId, parameters);
     }
 }
\ No newline at end of file
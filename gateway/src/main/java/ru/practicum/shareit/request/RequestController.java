@@ -10,6 +10,7 @@ import ru.practicum.shareit.request.dto.RequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.*;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/requests")
@@ -20,28 +21,36 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> save(@RequestHeader("X-Sharer-User-Id") Long userId, @Valid @RequestBody RequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> save(@RequestHeader("X-Sharer-User-Id") Long userId, @Valid @RequestBody RequestDto dto) {
         log.info("Creating request {}, userId {}", dto, userId);
         return requestClient.save(userId, dto);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> findById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId) {
         log.info("Get request with id {}", requestId);
         return requestClient.findById(userId, requestId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get all requests, userId {}", userId);
-        return requestClient.findAll(userId);
+    public CompletableFuture<ResponseEntity<Object>> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+        @PositiveOrZero @RequestParam(required = false) Integer from,
+        @Positive @RequestParam(required = false) Integer size) {
+        if (from == null && size == null) {
+            log.info("Get all requests, userId {}", userId);
+            return requestClient.findAll(userId);
+        }
+
+        log.info("Get all requests, userId {}, from {}, size {}", userId, from, size);
+        return requestClient.findAll(userId, from == null ? 0 : from, size == null ? 10 : size);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> findAllFromOtherUsers(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> findAllFromOtherUsers(@RequestHeader("X-Sharer-User-Id") Long userId,
         @PositiveOrZero @RequestParam(defaultValue = "0", required = false) Integer from,
-        @Positive @RequestParam(defaultValue = "10", required = false) Integer size) {
-        log.info("Get all requests from other user {}", userId);
-        return requestClient.findAllFromOtherUsers(userId, from, size);
+        @Positive @RequestParam(defaultValue = "10", required = false) Integer size,
+        @RequestParam(required = false) String cursor) {
+        log.info("Get all requests from other user {}, from {}, size {}, cursor {}", userId, from, size, cursor);
+        return requestClient.findAllFromOtherUsers(userId, from, size, cursor);
     }
 }
\ No newline at end of file
@@ -1,45 +1,70 @@
 package ru.practicum.shareit.user;
 
-import org.springframework.beans.factory.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
-import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.*;
+import ru.practicum.shareit.core.QueryParametersInterface;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory,
+        ServerBalancer balancer, RequestCoalescer coalescer, EtagCache etags) {
         super(
             builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
+                .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                .requestFactory(() -> requestFactory)
+                .build(),
+            balancer,
+            coalescer,
+            etags
         );
     }
 
-    public ResponseEntity<Object> getUsers() {
+    public CompletableFuture<ResponseEntity<Object>> getUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getUserById(long id) {
+    public CompletableFuture<ResponseEntity<Object>> getUsers(String cursor, int size) {
+        StringBuilder query = new StringBuilder("?size={size}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(QueryParametersInterface.SIZE, size);
+
+        if (cursor != null) {
+            query.append("&cursor={cursor}");
+            parameters.put(QueryParametersInterface.CURSOR, cursor);
+        }
+
+        return get(query.toString(), null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> streamUsers() {
+        return stream("", MediaType.APPLICATION_NDJSON);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getUserById(long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> save(UserRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> save(UserRequestDto requestDto) {
         return post("", requestDto);
     }
 
-    public ResponseEntity<Object> update(UserRequestDto requestDto, long userId) {
+    public CompletableFuture<ResponseEntity<Object>> update(UserRequestDto requestDto, long userId) {
         return patch("/" + userId, requestDto);
     }
 
-    public ResponseEntity<Object> delete(long userId) {
+    public CompletableFuture<ResponseEntity<Object>> delete(long userId) {
         return delete("/" + userId);
     }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +10,7 @@ import ru.practicum.shareit.user.dto.UserRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping(path = "/users")
@@ -20,31 +21,43 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> findAll() {
-        log.info("Get all users");
-        return userClient.getUsers();
+    public CompletableFuture<ResponseEntity<Object>> findAll(@RequestParam(required = false) String cursor,
+        @Positive @RequestParam(required = false) Integer size) {
+        if (cursor == null && size == null) {
+            log.info("Get all users");
+            return userClient.getUsers();
+        }
+
+        log.info("Get users after cursor {}, size {}", cursor, size);
+        return userClient.getUsers(cursor, size == null ? 10 : size);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<Object>> stream() {
+        log.info("Stream all users");
+        return userClient.streamUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> findById(@Positive @PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<Object>> findById(@Positive @PathVariable Long id) {
         log.info("Get user with id " + id);
         return userClient.getUserById(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> save(@Valid @RequestBody UserRequestDto dto) {
+    public CompletableFuture<ResponseEntity<Object>> save(@Valid @RequestBody UserRequestDto dto) {
         log.info("Creating user {}", dto);
         return userClient.save(dto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@RequestBody UserRequestDto dto, @Positive @PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> update(@RequestBody UserRequestDto dto, @Positive @PathVariable Long userId) {
         log.info("Updating user with id " + userId);
         return userClient.update(dto, userId);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> delete(@Positive @PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<Object>> delete(@Positive @PathVariable Long id) {
         log.info("Deleting user with id " + id);
         return userClient.delete(id);
     }
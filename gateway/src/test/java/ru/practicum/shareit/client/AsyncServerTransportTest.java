@@ -0,0 +1,110 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncServerTransportTest {
+    private StubServer server;
+    private MeterRegistry registry;
+    private AsyncServerTransport transport;
+
+    @BeforeEach
+    public void init() throws IOException {
+        server = new StubServer();
+        registry = new SimpleMeterRegistry();
+        transport = new AsyncServerTransport(new ObjectMapper(), registry, 1, 1, Duration.ofSeconds(1),
+            Duration.ofSeconds(1), Duration.ofMillis(200), Duration.ofSeconds(15));
+    }
+
+    @AfterEach
+    public void close() {
+        server.close();
+    }
+
+    @Test
+    void exchange_whenServerAnswersOk_thenBodyPassedThroughAndPermitHeldUntilClosed() throws Exception {
+        ResponseEntity<Object> response = get("/ok").get(3, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, gauge("httpcomponents.httpclient.pool.total.connections"));
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            assertEquals("{\"id\":1}", StreamUtils.copyToString(body, StandardCharsets.UTF_8));
+        }
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.connections"));
+        assertEquals(1, gauge("httpcomponents.httpclient.pool.total.max"));
+    }
+
+    @Test
+    void exchange_whenServerAnswersError_thenBodyBufferedAndPermitReleased() throws Exception {
+        ResponseEntity<Object> response = get("/error").get(3, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("{\"error\":\"boom\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.connections"));
+    }
+
+    @Test
+    void exchange_whenNoPermitFreeWithinConnectionRequestTimeout_thenFails() throws Exception {
+        get("/ok").get(3, TimeUnit.SECONDS);
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> get("/ok").get(3, TimeUnit.SECONDS));
+
+        assertInstanceOf(ResourceAccessException.class, exception.getCause());
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.pending"));
+    }
+
+    @Test
+    void exchange_whenPermitReleased_thenWaitingCallSent() throws Exception {
+        ResponseEntity<Object> first = get("/ok").get(3, TimeUnit.SECONDS);
+        CompletableFuture<ResponseEntity<Object>> second = get("/error");
+        assertEquals(1, gauge("httpcomponents.httpclient.pool.total.pending"));
+
+        ((Resource) first.getBody()).getInputStream().close();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, second.get(3, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void exchange_whenServerSilent_thenFailsAfterReadTimeout() {
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> get("/silent").get(3, TimeUnit.SECONDS));
+
+        assertInstanceOf(ResourceAccessException.class, exception.getCause());
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.connections"));
+    }
+
+    @Test
+    void exchange_whenBodyStalls_thenReadFailsAfterReadTimeout() throws Exception {
+        ResponseEntity<Object> response = get("/stalled").get(3, TimeUnit.SECONDS);
+        InputStream body = ((Resource) response.getBody()).getInputStream();
+
+        assertEquals('[', body.read());
+        assertThrows(IOException.class, body::read);
+        assertEquals(0, gauge("httpcomponents.httpclient.pool.total.connections"));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> get(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return transport.exchange(HttpMethod.GET, server.uri(path), headers, null);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+}
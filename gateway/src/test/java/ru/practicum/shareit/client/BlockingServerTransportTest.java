@@ -0,0 +1,98 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.*;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockingServerTransportTest {
+    private StubServer server;
+    private MeterRegistry registry;
+    private CloseableHttpClient httpClient;
+    private BlockingServerTransport transport;
+
+    @BeforeEach
+    public void init() throws IOException {
+        server = new StubServer();
+        registry = new SimpleMeterRegistry();
+        HttpClientConfig config = new HttpClientConfig();
+        PoolingHttpClientConnectionManager connectionManager = config.connectionManager(1, 1, Duration.ofSeconds(2));
+        config.connectionPoolMetrics(connectionManager).bindTo(registry);
+        httpClient = config.httpClient(connectionManager, Duration.ofSeconds(1), Duration.ofSeconds(1),
+            Duration.ofMillis(200), Duration.ofSeconds(15));
+        transport = new BlockingServerTransport(config.requestFactory(httpClient), new ObjectMapper());
+    }
+
+    @AfterEach
+    public void close() throws IOException {
+        httpClient.close();
+        server.close();
+    }
+
+    @Test
+    void exchange_whenServerAnswersOk_thenBodyPassedThroughAndConnectionHeldUntilClosed() throws Exception {
+        ResponseEntity<Object> response = get("/ok");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, leased());
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            assertEquals("{\"id\":1}", StreamUtils.copyToString(body, StandardCharsets.UTF_8));
+        }
+        assertEquals(0, leased());
+    }
+
+    @Test
+    void exchange_whenServerAnswersError_thenBodyBufferedAndConnectionReleased() throws Exception {
+        ResponseEntity<Object> response = get("/error");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("{\"error\":\"boom\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertEquals(0, leased());
+    }
+
+    @Test
+    void exchange_whenPoolExhaustedWithinConnectionRequestTimeout_thenFails() throws Exception {
+        get("/ok");
+
+        assertThrows(ResourceAccessException.class, () -> get("/ok"));
+    }
+
+    @Test
+    void exchange_whenServerSilent_thenFailsAfterReadTimeout() {
+        assertThrows(ResourceAccessException.class, () -> get("/silent"));
+    }
+
+    @Test
+    void exchange_whenBodyStalls_thenReadFailsAfterReadTimeout() throws Exception {
+        InputStream body = ((Resource) get("/stalled").getBody()).getInputStream();
+
+        assertEquals('[', body.read());
+        assertThrows(IOException.class, body::read);
+    }
+
+    private ResponseEntity<Object> get(String path) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        return transport.exchange(HttpMethod.GET, server.uri(path), headers, null).get(3, TimeUnit.SECONDS);
+    }
+
+    private double leased() {
+        return registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased").gauge()
+            .value();
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.http.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EtagCacheTest {
+    private static final URI ITEM = URI.create("/items/1");
+    private static final String ETAG = "\"v1\"";
+    private final List<HttpHeaders> sent = new ArrayList<>();
+    private MeterRegistry registry;
+    private EtagCache cache;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        cache = new EtagCache(registry, 2, List.of("/items/{id:[0-9]+}"));
+    }
+
+    @Test
+    void get_whenServerAnswersNotModified_thenCachedBodyServed() {
+        get(ITEM, 1L, ok(ETAG, "item"));
+
+        ResponseEntity<Object> actual = get(ITEM, 1L,
+            ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETAG).build());
+
+        assertEquals(List.of(ETAG), sent.get(1).getIfNoneMatch());
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals("item", body(actual));
+        assertEquals(ETAG, actual.getHeaders().getETag());
+        assertEquals(1, registry.counter("cache.revalidations", "cache", "etag", "result", "not-modified").count());
+        assertEquals(1, registry.counter("cache.gets", "cache", "etag", "result", "miss").count());
+    }
+
+    @Test
+    void get_whenServerAnswersNewVersion_thenEntryReplaced() {
+        get(ITEM, 1L, ok(ETAG, "item"));
+        get(ITEM, 1L, ok("\"v2\"", "changed"));
+
+        get(ITEM, 1L, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+
+        assertEquals(List.of("\"v2\""), sent.get(2).getIfNoneMatch());
+        assertEquals(1, registry.counter("cache.revalidations", "cache", "etag", "result", "modified").count());
+    }
+
+    @Test
+    void get_whenErrorOrWeakEtag_thenEntryDropped() {
+        get(ITEM, 1L, ok(ETAG, "item"));
+        get(ITEM, 1L, ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        get(ITEM, 1L, ok("W/\"v1\"", "item"));
+
+        get(ITEM, 1L, ok(ETAG, "item"));
+
+        assertTrue(sent.get(2).getIfNoneMatch().isEmpty());
+        assertTrue(sent.get(3).getIfNoneMatch().isEmpty());
+    }
+
+    @Test
+    void get_whenOtherUserOrPath_thenValidatorNotSent() {
+        get(ITEM, 1L, ok(ETAG, "item"));
+
+        get(ITEM, 2L, ok(ETAG, "item"));
+        get(URI.create("/items/search"), 1L, ok(ETAG, "[]"));
+        get(URI.create("/items/search"), 1L, ok(ETAG, "[]"));
+
+        assertTrue(sent.get(1).getIfNoneMatch().isEmpty());
+        assertTrue(sent.get(3).getIfNoneMatch().isEmpty());
+    }
+
+    @Test
+    void get_whenMaxSizeExceeded_thenLeastRecentlyUsedEvicted() {
+        get(URI.create("/items/1"), 1L, ok(ETAG, "1"));
+        get(URI.create("/items/2"), 1L, ok(ETAG, "2"));
+        get(URI.create("/items/1"), 1L, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        get(URI.create("/items/3"), 1L, ok(ETAG, "3"));
+
+        assertEquals(1, registry.counter("cache.evictions", "cache", "etag").count());
+        assertEquals(2, registry.get("cache.size").tag("cache", "etag").gauge().value());
+        get(URI.create("/items/1"), 1L, ok(ETAG, "1"));
+        get(URI.create("/items/2"), 1L, ok(ETAG, "2"));
+        assertEquals(List.of(ETAG), sent.get(4).getIfNoneMatch());
+        assertTrue(sent.get(5).getIfNoneMatch().isEmpty());
+    }
+
+    private ResponseEntity<Object> get(URI uri, Long userId, ResponseEntity<Object> response) {
+        return cache.get(uri, userId, new HttpHeaders(), headers -> {
+            sent.add(headers);
+            return CompletableFuture.completedFuture(response);
+        }).join();
+    }
+
+    private static ResponseEntity<Object> ok(String etag, String body) {
+        return ResponseEntity.ok().eTag(etag).body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.*;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GatewayResponsesTest {
+    @Test
+    void prepareGatewayResponse_whenSuccessWithContentType_thenBodyPassedThroughUnread() throws IOException {
+        InputStream body = body("[{\"id\":1}]");
+
+        ResponseEntity<Object> response = GatewayResponses.prepareGatewayResponse(200, json(), body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(body, ((Resource) response.getBody()).getInputStream());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void prepareGatewayResponse_whenHopByHopHeaders_thenDropped() {
+        HttpHeaders headers = json();
+        headers.add(HttpHeaders.CONNECTION, "keep-alive");
+        headers.add("Keep-Alive", "timeout=15");
+        headers.add(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.add(HttpHeaders.DATE, "Sun, 18 Oct 2026 10:00:00 GMT");
+        headers.add(HttpHeaders.ETAG, "\"1\"");
+
+        HttpHeaders forwarded = GatewayResponses.prepareGatewayResponse(200, headers, body("{}")).getHeaders();
+
+        assertEquals(Set.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG), forwarded.keySet());
+    }
+
+    @Test
+    void prepareGatewayResponse_whenErrorStatus_thenBodyBufferedAndStreamClosed() {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream body = new FilterInputStream(body("{\"error\":\"Вещь не найдена\"}")) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        };
+
+        ResponseEntity<Object> response = GatewayResponses.prepareGatewayResponse(404, json(), body);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("{\"error\":\"Вещь не найдена\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void prepareGatewayResponse_whenEmptyBody_thenNoBody() {
+        ResponseEntity<Object> response = GatewayResponses.prepareGatewayResponse(304, new HttpHeaders(), body(""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void prepareGatewayResponse_whenBodyReadFails_thenUncheckedIoException() {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("reset");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> GatewayResponses.prepareGatewayResponse(500, json(), broken));
+    }
+
+    @Test
+    void ioError_whenCalled_thenMessageNamesRequest() {
+        IOException cause = new IOException("refused");
+
+        ResourceAccessException exception = GatewayResponses.ioError(HttpMethod.GET, URI.create("/items/1"), cause);
+
+        assertTrue(exception.getMessage().startsWith("I/O error on GET request for \"/items/1\": refused"));
+        assertSame(cause, exception.getCause());
+    }
+
+    private static HttpHeaders json() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.http.*;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadShedderTest {
+    private static final URI ITEM = URI.create("/items/1");
+    private final AtomicLong now = new AtomicLong();
+    private MeterRegistry registry;
+    private LoadShedder shedder;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        shedder = new LoadShedder(registry, 4, 2, 6, 0.5, Duration.ofSeconds(1), 2, Duration.ofSeconds(10),
+            now::get);
+    }
+
+    @Test
+    void call_whenLimitReached_thenShedWithoutCallingServer() {
+        for (int i = 0; i < 4; i++) {
+            shedder.call(HttpMethod.GET, ITEM, CompletableFuture::new);
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        ServerUnavailableException exception = assertShed(shedder.call(HttpMethod.GET, ITEM, () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>();
+        }));
+
+        assertEquals(0, calls.get());
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals(1, registry.counter("gateway.requests.shed", "reason", "concurrency-limit").count());
+    }
+
+    @Test
+    void call_whenFastCallsKeepLimitHalfUsed_thenLimitGrowsByOneUpToMax() {
+        for (int i = 0; i < 3; i++) {
+            shedder.call(HttpMethod.GET, ITEM, CompletableFuture::new);
+        }
+
+        succeed();
+        assertEquals(5, limit());
+        succeed();
+        succeed();
+        assertEquals(6, limit());
+    }
+
+    @Test
+    void call_whenLimitMostlyIdle_thenLimitUnchanged() {
+        shedder.call(HttpMethod.GET, ITEM, () -> CompletableFuture.completedFuture(status(HttpStatus.OK)));
+
+        assertEquals(4, limit());
+    }
+
+    @Test
+    void call_whenSlowOrOverloaded_thenLimitDecreasedMultiplicativelyDownToMin() {
+        CompletableFuture<ResponseEntity<Object>> slow = new CompletableFuture<>();
+        shedder.call(HttpMethod.GET, ITEM, () -> slow);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        slow.complete(status(HttpStatus.OK));
+        assertEquals(2, limit());
+
+        shedder.call(HttpMethod.GET, URI.create("/bookings"),
+            () -> CompletableFuture.completedFuture(status(HttpStatus.SERVICE_UNAVAILABLE)));
+        assertEquals(2, limit());
+    }
+
+    @Test
+    void call_whenInternalServerError_thenNeitherLimitNorBreakerAffected() {
+        for (int i = 0; i < 5; i++) {
+            shedder.call(HttpMethod.POST, URI.create("/users"),
+                () -> CompletableFuture.completedFuture(status(HttpStatus.INTERNAL_SERVER_ERROR)));
+        }
+
+        assertEquals(4, limit());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, shedder.call(HttpMethod.POST, URI.create("/users"),
+            () -> CompletableFuture.completedFuture(status(HttpStatus.INTERNAL_SERVER_ERROR))).join().getStatusCode());
+    }
+
+    @Test
+    void call_whenConsecutiveFailures_thenCircuitOpensForEndpoint() {
+        shedder.call(HttpMethod.GET, URI.create("/items/1"),
+            () -> CompletableFuture.completedFuture(status(HttpStatus.BAD_GATEWAY)));
+        shedder.call(HttpMethod.GET, URI.create("/items/2"),
+            () -> CompletableFuture.failedFuture(new ResourceAccessException("refused", new IOException())));
+        AtomicInteger calls = new AtomicInteger();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        ServerUnavailableException exception = assertShed(shedder.call(HttpMethod.GET, URI.create("/items/3"), () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(status(HttpStatus.OK));
+        }));
+
+        assertEquals(0, calls.get());
+        assertEquals(7, exception.getRetryAfterSeconds());
+        assertEquals(1, registry.counter("gateway.circuit-breaker.opened", "endpoint", "GET /items/{id}").count());
+        assertEquals(HttpStatus.OK, shedder.call(HttpMethod.PATCH, ITEM,
+            () -> CompletableFuture.completedFuture(status(HttpStatus.OK))).join().getStatusCode());
+    }
+
+    @Test
+    void call_whenFailureFollowedBySuccess_thenFailureCountReset() {
+        failWith(HttpStatus.GATEWAY_TIMEOUT);
+        succeed();
+        failWith(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertEquals(HttpStatus.OK, succeed().join().getStatusCode());
+    }
+
+    @Test
+    void call_whenOpenDurationPassed_thenSingleTrialAllowedAndSuccessCloses() {
+        failWith(HttpStatus.SERVICE_UNAVAILABLE);
+        failWith(HttpStatus.SERVICE_UNAVAILABLE);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        CompletableFuture<ResponseEntity<Object>> trial = new CompletableFuture<>();
+        shedder.call(HttpMethod.GET, ITEM, () -> trial);
+        assertShed(succeed());
+
+        trial.complete(status(HttpStatus.OK));
+        assertEquals(HttpStatus.OK, succeed().join().getStatusCode());
+        assertEquals(HttpStatus.OK, succeed().join().getStatusCode());
+    }
+
+    @Test
+    void call_whenTrialFails_thenCircuitReopened() {
+        failWith(HttpStatus.SERVICE_UNAVAILABLE);
+        failWith(HttpStatus.SERVICE_UNAVAILABLE);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        shedder.call(HttpMethod.GET, ITEM,
+            () -> CompletableFuture.failedFuture(new CompletionException(new TimeoutException())));
+
+        assertEquals(10, assertShed(succeed()).getRetryAfterSeconds());
+        assertEquals(2, registry.counter("gateway.circuit-breaker.opened", "endpoint", "GET /items/{id}").count());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> succeed() {
+        return shedder.call(HttpMethod.GET, ITEM, () -> CompletableFuture.completedFuture(status(HttpStatus.OK)));
+    }
+
+    private void failWith(HttpStatus status) {
+        shedder.call(HttpMethod.GET, ITEM, () -> CompletableFuture.completedFuture(status(status)));
+    }
+
+    private double limit() {
+        return registry.get("gateway.concurrency.limit").gauge().value();
+    }
+
+    private static ResponseEntity<Object> status(HttpStatus status) {
+        return ResponseEntity.status(status).build();
+    }
+
+    private static ServerUnavailableException assertShed(CompletableFuture<ResponseEntity<Object>> response) {
+        CompletionException exception = assertThrows(CompletionException.class, response::join);
+        return assertInstanceOf(ServerUnavailableException.class, exception.getCause());
+    }
+}
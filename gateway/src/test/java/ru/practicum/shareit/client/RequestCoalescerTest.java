@@ -0,0 +1,111 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest {
+    private static final URI ITEM = URI.create("/items/1");
+    private final AtomicInteger calls = new AtomicInteger();
+    private MeterRegistry registry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(registry, List.of("/items/{id:[0-9]+}", "/requests/all"));
+    }
+
+    @Test
+    void get_whenSameRequestInFlight_thenServerCalledOnceAndBodyShared() {
+        CompletableFuture<ResponseEntity<Object>> server = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<Object>> first = coalescer.get(ITEM, 1L, () -> call(server));
+        CompletableFuture<ResponseEntity<Object>> second = coalescer.get(ITEM, 1L, () -> call(server));
+        server.complete(ResponseEntity.ok(new InputStreamResource(
+            new ByteArrayInputStream("item".getBytes(StandardCharsets.UTF_8)))));
+
+        assertEquals(1, calls.get());
+        assertArrayEquals("item".getBytes(StandardCharsets.UTF_8), (byte[]) first.join().getBody());
+        assertArrayEquals("item".getBytes(StandardCharsets.UTF_8), (byte[]) second.join().getBody());
+        assertEquals(1, registry.counter("gateway.requests.coalesced").count());
+    }
+
+    @Test
+    void get_whenDifferentUserOrPath_thenNotCoalesced() {
+        CompletableFuture<ResponseEntity<Object>> server = new CompletableFuture<>();
+
+        coalescer.get(ITEM, 1L, () -> call(server));
+        coalescer.get(ITEM, 2L, () -> call(server));
+        coalescer.get(URI.create("/items/2"), 1L, () -> call(server));
+        coalescer.get(URI.create("/bookings/1"), 1L, () -> call(server));
+        coalescer.get(URI.create("/bookings/1"), 1L, () -> call(server));
+
+        assertEquals(5, calls.get());
+        assertEquals(0, registry.counter("gateway.requests.coalesced").count());
+    }
+
+    @Test
+    void get_whenPathNotListed_thenNotCoalesced() {
+        CompletableFuture<ResponseEntity<Object>> server = new CompletableFuture<>();
+
+        coalescer.get(URI.create("/items/search?text=drill"), 1L, () -> call(server));
+        coalescer.get(URI.create("/items/search?text=drill"), 1L, () -> call(server));
+        coalescer.get(URI.create("/items/1/comments"), 1L, () -> call(server));
+        coalescer.get(URI.create("/items/1/comments"), 1L, () -> call(server));
+
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void get_whenSameQuery_thenCoalescedAndDifferentQueryNot() {
+        CompletableFuture<ResponseEntity<Object>> server = new CompletableFuture<>();
+        URI page = URI.create("/requests/all?from=0&size=10");
+
+        coalescer.get(page, 1L, () -> call(server));
+        coalescer.get(page, 1L, () -> call(server));
+        coalescer.get(URI.create("/requests/all?from=10&size=10"), 1L, () -> call(server));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, registry.counter("gateway.requests.coalesced").count());
+    }
+
+    @Test
+    void get_whenPreviousCallCompleted_thenServerCalledAgain() {
+        coalescer.get(ITEM, 1L, () -> call(CompletableFuture.completedFuture(ResponseEntity.ok().build()))).join();
+        coalescer.get(ITEM, 1L, () -> call(CompletableFuture.completedFuture(ResponseEntity.ok().build()))).join();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void get_whenCallFails_thenErrorSharedAndNextCallMade() {
+        CompletableFuture<ResponseEntity<Object>> server = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> first = coalescer.get(ITEM, 1L, () -> call(server));
+        CompletableFuture<ResponseEntity<Object>> second = coalescer.get(ITEM, 1L, () -> call(server));
+
+        server.completeExceptionally(new ResourceAccessException("refused"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        coalescer.get(ITEM, 1L, () -> call(CompletableFuture.completedFuture(ResponseEntity.ok().build()))).join();
+        assertEquals(2, calls.get());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> call(CompletableFuture<ResponseEntity<Object>> response) {
+        calls.incrementAndGet();
+        return response;
+    }
+}
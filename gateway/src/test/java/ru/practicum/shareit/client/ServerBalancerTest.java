@@ -0,0 +1,384 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.jupiter.api.*;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.*;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.*;
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServerBalancerTest {
+    private static final String FIRST = "a:9090";
+    private static final String SECOND = "b:9090";
+    private static final String THIRD = "c:9090";
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final URI ITEM = URI.create("/items/1");
+    private static final URI BOOKINGS = URI.create("/bookings");
+    private final StubTransport transport = new StubTransport();
+    private final BlockingQueue<HealthCheck> healthChecks = new LinkedBlockingQueue<>();
+    private MeterRegistry registry;
+    private LoadShedder shedder;
+    private ServerBalancer balancer;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        shedder = new LoadShedder(registry, 100, 100, 100, 0.5, Duration.ofSeconds(10), 1000, Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    public void destroy() {
+        if (balancer != null) {
+            balancer.destroy();
+        }
+    }
+
+    @Test
+    void exchange_whenUrlHasTrailingSlash_thenPathResolvedAgainstIt() {
+        balancer = new ServerBalancer(registry, transport, shedder, List.of("http://a:9090/"), Duration.ofHours(1),
+            Duration.ofSeconds(1), false, 0.95, Duration.ofMillis(10), ServerBalancer.Routing.LEAST_LOADED, 160);
+
+        get(ITEM).join();
+
+        assertEquals(List.of(URI.create("http://a:9090/items/1")), transport.calls);
+    }
+
+    @Test
+    void exchange_whenOneInstanceBusier_thenOtherInstanceChosen() throws Exception {
+        balancer = balancer(false, Duration.ofMillis(10));
+        transport.defaultResponse = CompletableFuture::new;
+
+        get(ITEM);
+        get(ITEM);
+        get(ITEM);
+        get(ITEM);
+
+        assertNotEquals(transport.instance(0), transport.instance(1));
+        assertNotEquals(transport.instance(2), transport.instance(3));
+    }
+
+    @Test
+    void exchange_whenInstanceFailsWithIoError_thenEjectedUntilHealthCheckPasses() throws Exception {
+        balancer = balancer(false, Duration.ofMillis(10));
+        transport.failing.add(FIRST);
+        callUntilInstanceHit(FIRST);
+
+        transport.calls.clear();
+        for (int i = 0; i < 20; i++) {
+            get(ITEM).join();
+        }
+        assertTrue(transport.calls.stream().allMatch(uri -> uri.getAuthority().equals(SECOND)));
+        assertEquals(1, registry.get("gateway.server.instances.healthy").gauge().value());
+
+        balancer.checkHealth();
+        completeHealthChecks(Map.of(FIRST, 503, SECOND, 200));
+        assertEquals(1, registry.get("gateway.server.instances.healthy").gauge().value());
+
+        transport.failing.clear();
+        balancer.checkHealth();
+        completeHealthChecks(Map.of(FIRST, 200, SECOND, 200));
+        assertEquals(2, registry.get("gateway.server.instances.healthy").gauge().value());
+        callUntilInstanceHit(FIRST);
+    }
+
+    @Test
+    void exchange_whenConnectionPoolTimesOut_thenInstanceNotEjected() throws Exception {
+        balancer = balancer(false, Duration.ofMillis(10));
+        transport.poolExhausted.add(FIRST);
+
+        callUntilInstanceHit(FIRST);
+
+        assertEquals(2, registry.get("gateway.server.instances.healthy").gauge().value());
+    }
+
+    @Test
+    void exchange_whenHedgeAnsweredFirst_thenHedgeWinsAndLosingBodyClosed() throws Exception {
+        balancer = balancer(true, Duration.ofMillis(20));
+        CompletableFuture<ResponseEntity<Object>> slow = new CompletableFuture<>();
+        transport.responses.add(() -> slow);
+        transport.responses.add(() -> CompletableFuture.completedFuture(ResponseEntity.ok("fast")));
+
+        ResponseEntity<Object> response = get(ITEM).get(5, TimeUnit.SECONDS);
+        TrackingStream losingBody = new TrackingStream();
+        slow.complete(ResponseEntity.ok(new InputStreamResource(losingBody)));
+
+        assertEquals("fast", response.getBody());
+        assertNotEquals(transport.instance(0), transport.instance(1));
+        assertTrue(losingBody.closed);
+        assertEquals(1, registry.counter("gateway.requests.hedged").count());
+    }
+
+    @Test
+    void exchange_whenAnsweredBeforeHedgeDelay_thenNotHedged() throws Exception {
+        balancer = balancer(true, Duration.ofSeconds(5));
+
+        get(ITEM).join();
+        balancer.exchange(HttpMethod.POST, ITEM, new HttpHeaders(), "body").join();
+
+        assertEquals(2, transport.calls.size());
+        assertEquals(0, registry.counter("gateway.requests.hedged").count());
+    }
+
+    @Test
+    void exchange_whenBothAttemptsFail_thenErrorReturned() throws Exception {
+        balancer = balancer(true, Duration.ofMillis(20));
+        CompletableFuture<ResponseEntity<Object>> slow = new CompletableFuture<>();
+        transport.responses.add(() -> slow);
+        transport.responses.add(() -> CompletableFuture.failedFuture(new ResourceAccessException("refused")));
+        CompletableFuture<ResponseEntity<Object>> response = get(ITEM);
+
+        while (transport.calls.size() < 2) {
+            Thread.sleep(5);
+        }
+        assertFalse(response.isDone());
+        slow.completeExceptionally(new ResourceAccessException("reset"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> response.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceAccessException.class, exception.getCause());
+    }
+
+    @Test
+    void exchange_whenHedgeOverConcurrencyLimit_thenHedgeShedAndPrimaryAnswerUsed() throws Exception {
+        shedder = new LoadShedder(registry, 1, 1, 1, 0.5, Duration.ofSeconds(10), 1000, Duration.ofSeconds(10));
+        balancer = balancer(true, Duration.ofMillis(20));
+        CompletableFuture<ResponseEntity<Object>> slow = new CompletableFuture<>();
+        transport.responses.add(() -> slow);
+        CompletableFuture<ResponseEntity<Object>> response = get(ITEM);
+
+        while (registry.counter("gateway.requests.hedged").count() < 1) {
+            Thread.sleep(5);
+        }
+        slow.complete(ResponseEntity.ok("slow"));
+
+        assertEquals("slow", response.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, transport.calls.size());
+        assertEquals(1, registry.counter("gateway.requests.shed", "reason", "concurrency-limit").count());
+        assertEquals(2, registry.get("gateway.server.instances.healthy").gauge().value());
+    }
+
+    @Test
+    void exchange_whenUserHashRouting_thenUserKeepsItsInstance() throws Exception {
+        balancer = balancer(List.of(FIRST, SECOND, THIRD), ServerBalancer.Routing.USER_HASH, false);
+        Map<Long, String> owners = owners(300);
+
+        for (long userId = 1; userId <= 300; userId++) {
+            transport.calls.clear();
+            get(BOOKINGS, userId).join();
+            balancer.exchange(HttpMethod.GET, URI.create("/users/" + userId), new HttpHeaders(), null).join();
+            assertEquals(owners.get(userId), transport.instance(0));
+            assertEquals(owners.get(userId), transport.instance(1));
+        }
+        for (String instance : List.of(FIRST, SECOND, THIRD)) {
+            long users = owners.values().stream().filter(instance::equals).count();
+            assertTrue(users > 60, instance + " owns only " + users + " of 300 users");
+        }
+    }
+
+    @Test
+    void exchange_whenUserHashRoutingItemCall_thenItemKeepsItsInstanceForEveryUser() throws Exception {
+        balancer = balancer(List.of(FIRST, SECOND, THIRD), ServerBalancer.Routing.USER_HASH, false);
+        Set<String> itemInstances = new HashSet<>();
+
+        for (long itemId = 1; itemId <= 30; itemId++) {
+            transport.calls.clear();
+            get(URI.create("/items/" + itemId), 1L).join();
+            get(URI.create("/items/" + itemId + "/comments"), 2L).join();
+            balancer.exchange(HttpMethod.PATCH, URI.create("/items/" + itemId), new HttpHeaders(), "body").join();
+            assertEquals(transport.instance(0), transport.instance(1));
+            assertEquals(transport.instance(0), transport.instance(2));
+            itemInstances.add(transport.instance(0));
+        }
+        assertEquals(3, itemInstances.size());
+    }
+
+    @Test
+    void exchange_whenOwnerUnhealthy_thenOnlyItsUsersMoveAndReturnOnRecovery() throws Exception {
+        balancer = balancer(List.of(FIRST, SECOND, THIRD), ServerBalancer.Routing.USER_HASH, false);
+        Map<Long, String> owners = owners(300);
+
+        balancer.checkHealth();
+        completeHealthChecks(Map.of(FIRST, 503, SECOND, 200, THIRD, 200));
+        Map<Long, String> failedOver = owners(300);
+
+        for (long userId = 1; userId <= 300; userId++) {
+            if (owners.get(userId).equals(FIRST)) {
+                assertNotEquals(FIRST, failedOver.get(userId));
+            } else {
+                assertEquals(owners.get(userId), failedOver.get(userId));
+            }
+        }
+        balancer.checkHealth();
+        completeHealthChecks(Map.of(FIRST, 200, SECOND, 200, THIRD, 200));
+        assertEquals(owners, owners(300));
+    }
+
+    @Test
+    void exchange_whenInstanceAdded_thenOnlyUsersMovingToItChangeInstance() throws Exception {
+        balancer = balancer(List.of(FIRST, SECOND), ServerBalancer.Routing.USER_HASH, false);
+        Map<Long, String> before = owners(1000);
+        balancer.destroy();
+        balancer = balancer(List.of(FIRST, SECOND, THIRD), ServerBalancer.Routing.USER_HASH, false);
+        Map<Long, String> after = owners(1000);
+
+        long moved = 0;
+        for (long userId = 1; userId <= 1000; userId++) {
+            if (!before.get(userId).equals(after.get(userId))) {
+                assertEquals(THIRD, after.get(userId));
+                moved++;
+            }
+        }
+        assertTrue(moved > 200 && moved < 450, moved + " of 1000 users moved");
+    }
+
+    @Test
+    void exchange_whenUserHashCallHedged_thenHedgeSentToAnotherInstance() throws Exception {
+        balancer = balancer(List.of(FIRST, SECOND, THIRD), ServerBalancer.Routing.USER_HASH, true);
+        transport.responses.add(CompletableFuture::new);
+
+        assertEquals(HttpStatus.OK, get(ITEM, 7L).get(5, TimeUnit.SECONDS).getStatusCode());
+
+        assertEquals(2, transport.calls.size());
+        assertNotEquals(transport.instance(0), transport.instance(1));
+    }
+
+    private ServerBalancer balancer(boolean hedgeEnabled, Duration minHedgeDelay) throws InterruptedException {
+        return balancer(List.of(FIRST, SECOND), ServerBalancer.Routing.LEAST_LOADED, hedgeEnabled, minHedgeDelay);
+    }
+
+    private ServerBalancer balancer(List<String> instances, ServerBalancer.Routing routing, boolean hedgeEnabled)
+        throws InterruptedException {
+        return balancer(instances, routing, hedgeEnabled, Duration.ofMillis(20));
+    }
+
+    /**
+     * Builds a balancer with a stub health probe. The health check scheduled at startup is answered as healthy
+     * before the test starts, so it cannot race with ejections made by the test.
+     */
+    private ServerBalancer balancer(List<String> instances, ServerBalancer.Routing routing, boolean hedgeEnabled,
+        Duration minHedgeDelay) throws InterruptedException {
+        List<String> urls = new ArrayList<>();
+        Map<String, Integer> healthy = new HashMap<>();
+        for (String instance : instances) {
+            urls.add("http://" + instance);
+            healthy.put(instance, 200);
+        }
+        ServerBalancer created = new ServerBalancer(registry, transport, shedder, urls, Duration.ofHours(1),
+            hedgeEnabled, 0.95, minHedgeDelay, routing, 160, uri -> {
+                CompletableFuture<Integer> status = new CompletableFuture<>();
+                healthChecks.add(new HealthCheck(uri.getAuthority(), status));
+                return status;
+            });
+        balancer = created;
+        completeHealthChecks(healthy);
+
+        return created;
+    }
+
+    private void completeHealthChecks(Map<String, Integer> statuses) throws InterruptedException {
+        for (int i = 0; i < statuses.size(); i++) {
+            HealthCheck check = healthChecks.poll(5, TimeUnit.SECONDS);
+            assertNotNull(check, "health check was not run");
+            check.status.complete(statuses.get(check.instance));
+        }
+    }
+
+    private void callUntilInstanceHit(String instance) {
+        for (int i = 0; i < 100; i++) {
+            transport.calls.clear();
+            get(ITEM).exceptionally(error -> null).join();
+            if (transport.instance(0).equals(instance)) {
+                return;
+            }
+        }
+
+        fail("instance " + instance + " was never chosen");
+    }
+
+    private Map<Long, String> owners(int users) {
+        Map<Long, String> owners = new HashMap<>();
+        for (long userId = 1; userId <= users; userId++) {
+            transport.calls.clear();
+            get(BOOKINGS, userId).join();
+            owners.put(userId, transport.instance(0));
+        }
+
+        return owners;
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> get(URI uri) {
+        return balancer.exchange(HttpMethod.GET, uri, new HttpHeaders(), null);
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> get(URI uri, long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(USER_HEADER, String.valueOf(userId));
+
+        return balancer.exchange(HttpMethod.GET, uri, headers, null);
+    }
+
+    private static class HealthCheck {
+        private final String instance;
+        private final CompletableFuture<Integer> status;
+
+        HealthCheck(String instance, CompletableFuture<Integer> status) {
+            this.instance = instance;
+            this.status = status;
+        }
+    }
+
+    private static class StubTransport implements ServerTransport {
+        private final List<URI> calls = new CopyOnWriteArrayList<>();
+        private final Queue<Supplier<CompletableFuture<ResponseEntity<Object>>>> responses =
+            new ConcurrentLinkedQueue<>();
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+        private final Set<String> poolExhausted = ConcurrentHashMap.newKeySet();
+        private volatile Supplier<CompletableFuture<ResponseEntity<Object>>> defaultResponse =
+            () -> CompletableFuture.completedFuture(ResponseEntity.ok().build());
+
+        @Override
+        public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+            @Nullable Object body) {
+            calls.add(uri);
+            if (failing.contains(uri.getAuthority())) {
+                return CompletableFuture.failedFuture(new ResourceAccessException("Connection refused"));
+            }
+            if (poolExhausted.contains(uri.getAuthority())) {
+                return CompletableFuture.failedFuture(new ResourceAccessException("Timeout waiting for a connection",
+                    new ConnectionPoolTimeoutException()));
+            }
+            Supplier<CompletableFuture<ResponseEntity<Object>>> response = responses.poll();
+
+            return (response != null ? response : defaultResponse).get();
+        }
+
+        String instance(int call) {
+            return calls.get(call).getAuthority();
+        }
+    }
+
+    private static class TrackingStream extends ByteArrayInputStream {
+        private volatile boolean closed;
+
+        TrackingStream() {
+            super("slow".getBytes());
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+/**
+ * Local HTTP server for the transport tests. {@code /ok} and {@code /error} answer at once, {@code /silent} never
+ * answers and {@code /stalled} sends the headers and a first chunk of the body and then nothing more.
+ */
+class StubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch stop = new CountDownLatch(1);
+
+    StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200, "{\"id\":1}"));
+        server.createContext("/error", exchange -> respond(exchange, 500, "{\"error\":\"boom\"}"));
+        server.createContext("/silent", exchange -> await());
+        server.createContext("/stalled", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, 0);
+            exchange.getResponseBody().write('[');
+            exchange.getResponseBody().flush();
+            await();
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    @Override
+    public void close() {
+        stop.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void await() {
+        try {
+            stop.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+        throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Connection", "keep-alive");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
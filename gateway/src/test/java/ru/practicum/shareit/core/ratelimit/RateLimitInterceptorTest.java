@@ -0,0 +1,71 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.*;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitInterceptorTest {
+    @Mock
+    private RateLimiter rateLimiter;
+    @InjectMocks
+    private RateLimitInterceptor interceptor;
+
+    @Test
+    void preHandle_whenUserIdHeader_thenUserBucketUsed() {
+        MockHttpServletRequest request = request("/items/search");
+        request.addHeader("X-Sharer-User-Id", "7");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        verify(rateLimiter).acquire(7L, "/items/search");
+        verifyNoMoreInteractions(rateLimiter);
+    }
+
+    @Test
+    void preHandle_whenNoUserIdHeader_thenRemoteAddressBucketUsed() {
+        MockHttpServletRequest request = request("/users");
+        request.setRemoteAddr("10.0.0.1");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        verify(rateLimiter).acquireAnonymous("10.0.0.1", "/users");
+        verifyNoMoreInteractions(rateLimiter);
+    }
+
+    @Test
+    void preHandle_whenUserIdNotNumber_thenRemoteAddressBucketUsed() {
+        MockHttpServletRequest request = request("/users");
+        request.addHeader("X-Sharer-User-Id", "abc");
+        request.setRemoteAddr("10.0.0.1");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        verify(rateLimiter).acquireAnonymous("10.0.0.1", "/users");
+    }
+
+    @Test
+    void preHandle_whenAsyncDispatch_thenNotLimited() {
+        MockHttpServletRequest request = request("/users");
+        request.setDispatcherType(DispatcherType.ASYNC);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        verifyNoInteractions(rateLimiter);
+    }
+
+    private MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.core.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+    private final AtomicLong now = new AtomicLong();
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void acquire_whenBurstOfCapacity_thenAllAllowedAndNextThrottled() {
+        RateLimiter limiter = limiter("3/1s", 100);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(1L, "/items");
+        }
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquire(1L, "/items"));
+
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals(1, registry.counter("gateway.requests.throttled", "endpoint", "*").count());
+    }
+
+    @Test
+    void acquire_whenIntervalPassed_thenOneTokenRefilled() {
+        RateLimiter limiter = limiter("2/1s", 100);
+        limiter.acquire(1L, "/items");
+        limiter.acquire(1L, "/items");
+
+        advanceMillis(500);
+        limiter.acquire(1L, "/items");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L, "/items"));
+    }
+
+    @Test
+    void acquire_whenThrottled_thenRetryAfterRoundedUpToWholeSeconds() {
+        RateLimiter limiter = limiter("1/3s", 100);
+        limiter.acquire(1L, "/items");
+
+        advanceMillis(500);
+        assertEquals(3, retryAfter(limiter, 1L));
+        advanceMillis(500);
+        assertEquals(2, retryAfter(limiter, 1L));
+        advanceMillis(1999);
+        assertEquals(1, retryAfter(limiter, 1L));
+    }
+
+    @Test
+    void acquire_whenEndpointHasOwnLimit_thenSeparateBucketUsed() {
+        RateLimiter limiter = new RateLimiter(registry, "1/1s", List.of("/items/search=2/1s"), 100,
+            Duration.ofSeconds(10), now::get);
+
+        limiter.acquire(1L, "/items");
+        limiter.acquire(1L, "/items/search");
+        limiter.acquire(1L, "/items/search");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L, "/bookings"));
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(1L, "/items/search"));
+    }
+
+    @Test
+    void acquire_whenBucketCapReached_thenNewUserAdmittedAndIdlestBucketEvicted() {
+        RateLimiter limiter = limiter("2/1s", 2);
+        limiter.acquire(1L, "/items");
+        limiter.acquire(2L, "/items");
+        limiter.acquire(2L, "/items");
+
+        limiter.acquire(3L, "/items");
+
+        assertEquals(2, registry.get("gateway.rate-limit.buckets").gauge().value());
+        assertEquals(1, registry.counter("gateway.rate-limit.evictions").count());
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(2L, "/items"));
+    }
+
+    @Test
+    void acquireAnonymous_whenAddressBucketEmpty_thenThrottledSeparatelyFromUsers() {
+        RateLimiter limiter = limiter("1/1s", 100);
+        limiter.acquireAnonymous("10.0.0.1", "/users");
+
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+            () -> limiter.acquireAnonymous("10.0.0.1", "/users"));
+
+        assertEquals("Too many requests to /users from address 10.0.0.1", exception.getMessage());
+        limiter.acquireAnonymous("10.0.0.2", "/users");
+        limiter.acquire(1L, "/users");
+    }
+
+    @Test
+    void sample_whenManyBuckets_thenDrawnFromAcrossTheMap() {
+        RateLimiter limiter = limiter("2/1s", 10_000);
+        for (long userId = 0; userId < 4096; userId++) {
+            limiter.acquire(userId, "/items");
+        }
+
+        Set<Object> sampled = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            List<? extends Map.Entry<?, ?>> sample = limiter.sample();
+            assertFalse(sample.isEmpty());
+            assertTrue(sample.size() <= 16);
+            sample.forEach(entry -> sampled.add(entry.getKey()));
+        }
+
+        assertTrue(sampled.size() > 16 * 8, "sampled " + sampled.size() + " distinct buckets");
+    }
+
+    @Test
+    void acquire_whenIdleBucketsSwept_thenBucketsDropped() {
+        RateLimiter limiter = limiter("2/1s", 100);
+        limiter.acquire(1L, "/items");
+        limiter.acquire(2L, "/items");
+
+        advanceMillis(10_000);
+        limiter.acquire(3L, "/items");
+
+        assertEquals(1, registry.get("gateway.rate-limit.buckets").gauge().value());
+    }
+
+    private RateLimiter limiter(String limit, int maxBuckets) {
+        return new RateLimiter(registry, limit, List.of(), maxBuckets, Duration.ofSeconds(10), now::get);
+    }
+
+    private long retryAfter(RateLimiter limiter, long userId) {
+        return assertThrows(RateLimitExceededException.class, () -> limiter.acquire(userId, "/items"))
+            .getRetryAfterSeconds();
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import ru.practicum.shareit.client.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserClientTest {
+    private final AtomicReference<HttpHeaders> sentHeaders = new AtomicReference<>();
+    private final AtomicReference<URI> sentUri = new AtomicReference<>();
+    private CompletableFuture<ResponseEntity<Object>> serverResponse;
+    private UserClient client;
+
+    @BeforeEach
+    public void init() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ServerTransport transport = (method, uri, headers, body) -> {
+            sentUri.set(uri);
+            sentHeaders.set(headers);
+            return serverResponse;
+        };
+        LoadShedder shedder = new LoadShedder(registry, 1, 1, 1, 0.5, Duration.ofSeconds(1), 1,
+            Duration.ofSeconds(10));
+        ServerBalancer balancer = new ServerBalancer(registry, transport, shedder, List.of("http://server"),
+            Duration.ofHours(1), Duration.ofSeconds(1), false, 0.95, Duration.ofMillis(10),
+            ServerBalancer.Routing.LEAST_LOADED, 160);
+        client = new UserClient(new RestTemplateBuilder(), new SimpleClientHttpRequestFactory(), balancer,
+            new RequestCoalescer(registry, List.of()), new EtagCache(registry, 10, List.of()));
+    }
+
+    @Test
+    void streamUsers_whenServerAnswers_thenUnreadBodyPassedThroughWithNdjsonAccept() throws Exception {
+        InputStreamResource body = new InputStreamResource(
+            new ByteArrayInputStream("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+        serverResponse = CompletableFuture.completedFuture(ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON).body(body));
+
+        ResponseEntity<Object> response = client.streamUsers().get(1, TimeUnit.SECONDS);
+
+        assertSame(body, response.getBody());
+        assertEquals(URI.create("http://server/users"), sentUri.get());
+        assertEquals(List.of(MediaType.APPLICATION_NDJSON), sentHeaders.get().getAccept());
+    }
+
+    @Test
+    void streamUsers_whenServerFails_thenErrorStatusReturnedInsteadOfStream() throws Exception {
+        serverResponse = CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body("{\"error\":\"boom\"}".getBytes(StandardCharsets.UTF_8)));
+
+        ResponseEntity<Object> response = client.streamUsers().get(1, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    void streamUsers_whenConcurrencyLimitReached_thenShed() {
+        serverResponse = new CompletableFuture<>();
+        client.streamUsers();
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> client.streamUsers().get(1, TimeUnit.SECONDS));
+
+        assertInstanceOf(ServerUnavailableException.class, exception.getCause());
+    }
+}
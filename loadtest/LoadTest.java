@@ -0,0 +1,129 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.*;
+
+/**
+ * Closed-loop load generator: {@code concurrency} workers send GETs back to back until {@code requests} have been
+ * sent, then the throughput, the latency percentiles and (with {@code --threads}) the target's live thread count
+ * are printed as one line.
+ *
+ * <pre>
+ * java loadtest/LoadTest.java &lt;url&gt; &lt;concurrency&gt; &lt;requests&gt; [--user=&lt;id&gt;] [--threads=&lt;base url&gt;]
+ * </pre>
+ */
+public class LoadTest {
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\":([0-9.]+)");
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        int requests = Integer.parseInt(args[2]);
+        String user = null;
+        String threadsUrl = null;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].startsWith("--user=")) {
+                user = args[i].substring("--user=".length());
+            } else if (args[i].startsWith("--threads=")) {
+                threadsUrl = args[i].substring("--threads=".length()) + "/actuator/metrics/jvm.threads.live";
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(4))
+            .build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET();
+        if (user != null) {
+            builder.header("X-Sharer-User-Id", user);
+        }
+        HttpRequest request = builder.build();
+
+        // Warm-up: connections, JIT and the target's caches.
+        run(client, request, concurrency, Math.min(requests, 500), null);
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        int maxThreads = run(client, request, concurrency, requests, new Result(latencies, errors, client,
+            threadsUrl));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("c=%d n=%d errors=%d %.0f req/s p50=%d ms p99=%d ms%s%n", concurrency, requests,
+            errors.get(), requests / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99),
+            threadsUrl != null ? " live-threads=" + maxThreads : "");
+        System.exit(0);
+    }
+
+    private static int run(HttpClient client, HttpRequest request, int concurrency, int requests, Result result)
+        throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger maxThreads = new AtomicInteger();
+        if (result != null && result.threadsUrl != null) {
+            sampler.scheduleAtFixedRate(() -> maxThreads.accumulateAndGet(result.liveThreads(), Math::max),
+                0, 200, TimeUnit.MILLISECONDS);
+        }
+
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long sent = System.nanoTime();
+                    boolean failed;
+                    try {
+                        failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 300;
+                    } catch (Exception e) {
+                        failed = true;
+                    }
+                    if (result != null) {
+                        result.latencies[i] = System.nanoTime() - sent;
+                        if (failed) {
+                            result.errors.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        sampler.shutdownNow();
+
+        return maxThreads.get();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+
+    private static class Result {
+        private final long[] latencies;
+        private final AtomicInteger errors;
+        private final HttpClient client;
+        private final String threadsUrl;
+
+        Result(long[] latencies, AtomicInteger errors, HttpClient client, String threadsUrl) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.client = client;
+            this.threadsUrl = threadsUrl;
+        }
+
+        int liveThreads() {
+            try {
+                String body = client.send(HttpRequest.newBuilder(URI.create(threadsUrl)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+                Matcher value = METRIC_VALUE.matcher(body);
+                return value.find() ? (int) Double.parseDouble(value.group(1)) : 0;
+            } catch (Exception e) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+/**
+ * Stands in for the main service: answers every request with a small JSON user after a fixed delay, so the gateway
+ * is measured against a server of known latency.
+ *
+ * <pre>
+ * java loadtest/UpstreamStub.java &lt;port&gt; &lt;delay ms&gt;
+ * </pre>
+ */
+public class UpstreamStub {
+    private static final byte[] BODY = "{\"id\":1,\"name\":\"user\",\"email\":\"user@mail.ru\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        long delayMillis = Long.parseLong(args[1]);
+        ScheduledExecutorService timer = Executors.newScheduledThreadPool(2);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+
+        server.createContext("/", exchange -> timer.schedule(() -> {
+            try (exchange; OutputStream body = exchange.getResponseBody()) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, BODY.length);
+                body.write(BODY);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+    }
+}
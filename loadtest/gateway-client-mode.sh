@@ -0,0 +1,31 @@
+#!/bin/sh
+# Compares shareit-server.client.mode=blocking and async. The gateway gets 8 Tomcat threads and calls
+# UpstreamStub, which answers after 100 ms. Rate limiting, load shedding and the connection slots are opened up so
+# they do not cap the run. Needs `mvn -B package -DskipTests` first.
+set -e
+cd "$(dirname "$0")/.."
+GATEWAY=gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar
+REQUESTS=${REQUESTS:-3000}
+
+java loadtest/UpstreamStub.java 9090 100 &
+STUB=$!
+trap 'kill $STUB 2>/dev/null' EXIT
+
+for MODE in blocking async; do
+    java -jar "$GATEWAY" --server.port=8080 --server.tomcat.threads.max=8 \
+        --shareit-server.client.mode=$MODE \
+        --rate-limit.enabled=false \
+        --shareit-server.http.max-total=1000 --shareit-server.http.max-per-route=1000 \
+        --shareit-server.load-shedding.initial-limit=1000 --shareit-server.load-shedding.max-limit=1000 \
+        --shareit-server.load-shedding.latency-threshold=60s \
+        --logging.level.org.springframework.web.client.RestTemplate=INFO > /tmp/loadtest-gateway.log 2>&1 &
+    GATEWAY_PID=$!
+    until curl -s -o /dev/null http://localhost:8080/actuator/health; do sleep 1; done
+
+    for CONCURRENCY in 8 64 256; do
+        echo "$MODE $(java loadtest/LoadTest.java http://localhost:8080/users/1 $CONCURRENCY $REQUESTS \
+            --threads=http://localhost:8080)"
+    done
+    kill $GATEWAY_PID
+    wait $GATEWAY_PID || true
+done
@@ -0,0 +1,35 @@
+#!/bin/sh
+# Compares the main service on platform threads and on virtual threads (the virtual-threads profile). The server
+# runs on H2 (test profile) with 20 items of one owner and serves GET /items?size=20. The virtual-thread run needs
+# a Java 21+ `java` on the PATH and is skipped on older runtimes. Needs `mvn -B package -DskipTests` first.
+set -e
+cd "$(dirname "$0")/.."
+SERVER=server/target/shareit-server-0.0.1-SNAPSHOT.jar
+REQUESTS=${REQUESTS:-4000}
+FEATURE=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/ *java.specification.version = //p')
+
+for PROFILES in test test,virtual-threads; do
+    if [ "$PROFILES" = "test,virtual-threads" ] && [ "$FEATURE" -lt 21 ]; then
+        echo "virtual skipped: java $FEATURE, needs 21+"
+        continue
+    fi
+    java -jar "$SERVER" --server.port=9090 --spring.profiles.active=$PROFILES \
+        --logging.level.org.springframework.transaction.interceptor=INFO \
+        --logging.level.org.springframework.orm.jpa.JpaTransactionManager=INFO > /tmp/loadtest-server.log 2>&1 &
+    SERVER_PID=$!
+    until curl -s -o /dev/null http://localhost:9090/actuator/health; do sleep 1; done
+
+    curl -s -o /dev/null -H 'Content-Type: application/json' -d '{"name":"owner","email":"owner@mail.ru"}' \
+        http://localhost:9090/users
+    for I in $(seq 1 20); do
+        curl -s -o /dev/null -H 'Content-Type: application/json' -H 'X-Sharer-User-Id: 1' \
+            -d "{\"name\":\"item $I\",\"description\":\"item $I\",\"available\":true}" http://localhost:9090/items
+    done
+
+    for CONCURRENCY in 16 256; do
+        echo "$PROFILES $(java loadtest/LoadTest.java 'http://localhost:9090/items?size=20' $CONCURRENCY \
+            $REQUESTS --user=1 --threads=http://localhost:9090)"
+    done
+    kill $SERVER_PID
+    wait $SERVER_PID || true
+done
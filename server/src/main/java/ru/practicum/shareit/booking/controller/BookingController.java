@@ -1,11 +1,12 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.service.BookingServiceInterface;
 
-import java.util.Collection;
+import java.util.*;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -23,6 +24,29 @@ public class BookingController {
         return bookingServiceInterface.findBookingsByItemOwnerId(userId, state, from, size);
     }
 
+    @GetMapping(path = "/owner", params = {"cursor", "view!=compact"})
+    public ResponseEntity<List<BookingDto>> findAllByUserIdAfterCursor(
+        @RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        return bookingServiceInterface.findBookingsByItemOwnerIdAfterCursor(userId, state, cursor, size)
+            .toResponseEntity();
+    }
+
+    @GetMapping(path = "/owner", params = "view=compact")
+    public ResponseEntity<List<CompactBookingDto>> findAllCompactByUserId(
+        @RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "0", required = false) Integer from,
+        @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        return bookingServiceInterface.findCompactBookingsByItemOwnerId(userId, state, cursor, from, size)
+            .toResponseEntity();
+    }
+
     @GetMapping
     public Collection<BookingDto> findByUserIdAndState(
         @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -33,6 +57,28 @@ public class BookingController {
         return bookingServiceInterface.findByUserIdAndState(userId, state, from, size);
     }
 
+    @GetMapping(params = {"cursor", "view!=compact"})
+    public ResponseEntity<List<BookingDto>> findByUserIdAndStateAfterCursor(
+        @RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        return bookingServiceInterface.findByUserIdAndStateAfterCursor(userId, state, cursor, size).toResponseEntity();
+    }
+
+    @GetMapping(params = "view=compact")
+    public ResponseEntity<List<CompactBookingDto>> findCompactByUserIdAndState(
+        @RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "0", required = false) Integer from,
+        @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        return bookingServiceInterface.findCompactByUserIdAndState(userId, state, cursor, from, size)
+            .toResponseEntity();
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto findById(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
         return bookingServiceInterface.findById(bookingId, userId);
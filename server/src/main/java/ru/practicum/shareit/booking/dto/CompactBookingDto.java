@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class CompactBookingDto {
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Status status;
+    private final Long itemId;
+    private final String itemName;
+    private final Long bookerId;
+}
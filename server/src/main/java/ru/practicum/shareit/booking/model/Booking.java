@@ -13,6 +13,15 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.details",
+    attributeNodes = {
+        @NamedAttributeNode(value = "item", subgraph = "item"),
+        @NamedAttributeNode("booker")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode(value = "request", subgraph = "request")),
+        @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requester"))
+    })
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,10 +31,10 @@ public class Booking {
     private LocalDateTime start;
     @Column(name = "end_date")
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "item_id")
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "booker_id")
     private User booker;
     @Column
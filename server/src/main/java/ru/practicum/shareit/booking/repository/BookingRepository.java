@@ -2,50 +2,96 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.core.pagination.Cursor;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph("Booking.details")
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b where b.booker.id = ?1")
     List<Booking> findByBookerId(Long bookerId, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b where b.booker.id = ?1 and b.status = ?2")
     List<Booking> findByBookerIdAndStatus(Long bookerId, Status status, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b where b.booker.id = ?1 and b.end < ?2")
     List<Booking> findByBookerIdAndEndIsBefore(Long bookerId, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b where b.booker.id = ?1 and b.start > ?2")
     List<Booking> findByBookerIdAndStartIsAfter(Long bookerId, LocalDateTime start, Pageable pageable);
 
+    @EntityGraph("Booking.details")
     @Query("select b from Booking b " +
         "where b.booker.id = ?1 " +
         "and b.start < ?2 " +
         "and b.end > ?2 ")
     List<Booking> findByBookerIdCurrent(Long bookerId, LocalDateTime now, Pageable pageable);
 
+    @Query("select new ru.practicum.shareit.booking.dto.ShortBookingDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+        "from Booking b " +
+        "where b.item.id = ?1 " +
+        "and b.status in ?2 " +
+        "and b.end > ?3")
+    List<ShortBookingDto> findIntervalsByItemId(Long itemId, Collection<Status> statuses, LocalDateTime end);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = ?1)")
     List<Booking> findBookingsByItemOwner(Long userId, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = ?1) " +
+        "and b.status = ?2")
     List<Booking> findBookingsByItemOwnerAndStatus(Long userId, Status status, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = ?1) " +
+        "and b.end < ?2")
     List<Booking> findBookingsByItemOwnerAndEndIsBefore(Long userId, LocalDateTime end, Pageable pageable);
 
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = ?1) " +
+        "and b.start > ?2")
     List<Booking> findBookingsByItemOwnerAndStartIsAfter(Long userId, LocalDateTime start, Pageable pageable);
 
-    @Query("select b from Booking b " +
-        "where b.item.id = ?1 " +
+    @Query("select new ru.practicum.shareit.booking.dto.ShortBookingDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+        "from Booking b " +
+        "where b.item.id in ?1 " +
         "and b.start < ?2 " +
-        "order by b.start desc")
-    List<Booking> findBookingByItemIdAndStartBefore(Long itemId, LocalDateTime now);
+        "and not exists (select b2.id from Booking b2 " +
+        "where b2.item.id = b.item.id " +
+        "and b2.start < ?2 " +
+        "and (b2.start > b.start or (b2.start = b.start and b2.id > b.id)))")
+    List<ShortBookingDto> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
-    @Query("select b from Booking b " +
-        "where b.item.id = ?1 " +
+    @Query("select new ru.practicum.shareit.booking.dto.ShortBookingDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+        "from Booking b " +
+        "where b.item.id in ?1 " +
         "and b.start > ?2 " +
-        "order by b.start asc")
-    List<Booking> findBookingByItemIdAndStartAfter(Long itemId, LocalDateTime now);
+        "and not exists (select b2.id from Booking b2 " +
+        "where b2.item.id = b.item.id " +
+        "and b2.start > ?2 " +
+        "and (b2.start < b.start or (b2.start = b.start and b2.id < b.id)))")
+    List<ShortBookingDto> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime now);
 
+    @EntityGraph("Booking.details")
     @Query("select b from Booking b " +
-        "where b.item.owner = ?1 " +
+        "where b.item.id in (select i.id from Item i where i.owner = ?1) " +
         "and b.start < ?2 " +
         "and b.end > ?2 " +
         "order by b.start asc")
@@ -56,4 +102,73 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         "and b.booker.id = ?2 " +
         "and b.end < ?3")
     List<Booking> findBookingsToAddComment(Long itemId, Long userId, LocalDateTime now);
-}
\ No newline at end of file
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.booker.id = :userId " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start < :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id < :#{#cursor.id})) " +
+        "order by b.start desc, b.id desc")
+    List<Booking> findByBookerIdAfterCursor(@Param("userId") Long userId, @Param("filter") BookingStateFilter filter,
+        @Param("cursor") Cursor cursor, Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = :userId) " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start < :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id < :#{#cursor.id})) " +
+        "order by b.start desc, b.id desc")
+    List<Booking> findByItemOwnerAfterCursor(@Param("userId") Long userId, @Param("filter") BookingStateFilter filter,
+        @Param("cursor") Cursor cursor, Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+        "where b.item.id in (select i.id from Item i where i.owner = :userId) " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start > :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id > :#{#cursor.id})) " +
+        "order by b.start asc, b.id asc")
+    List<Booking> findByItemOwnerAfterCursorAscending(@Param("userId") Long userId,
+        @Param("filter") BookingStateFilter filter, @Param("cursor") Cursor cursor, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.CompactBookingDto(" +
+        "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+        "from Booking b join b.item i " +
+        "where b.booker.id = :userId " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start < :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id < :#{#cursor.id})) " +
+        "order by b.start desc, b.id desc")
+    List<CompactBookingDto> findCompactByBookerId(@Param("userId") Long userId,
+        @Param("filter") BookingStateFilter filter, @Param("cursor") Cursor cursor, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.CompactBookingDto(" +
+        "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+        "from Booking b join b.item i " +
+        "where i.owner = :userId " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start < :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id < :#{#cursor.id})) " +
+        "order by b.start desc, b.id desc")
+    List<CompactBookingDto> findCompactByItemOwner(@Param("userId") Long userId,
+        @Param("filter") BookingStateFilter filter, @Param("cursor") Cursor cursor, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.CompactBookingDto(" +
+        "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+        "from Booking b join b.item i " +
+        "where i.owner = :userId " +
+        "and b.status in :#{#filter.statuses} " +
+        "and b.start > :#{#filter.startAfter} and b.start < :#{#filter.startBefore} " +
+        "and b.end > :#{#filter.endAfter} and b.end < :#{#filter.endBefore} " +
+        "and (b.start > :#{#cursor.timestamp} or (b.start = :#{#cursor.timestamp} and b.id > :#{#cursor.id})) " +
+        "order by b.start asc, b.id asc")
+    List<CompactBookingDto> findCompactByItemOwnerAscending(@Param("userId") Long userId,
+        @Param("filter") BookingStateFilter filter, @Param("cursor") Cursor cursor, Pageable pageable);
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.core.exception.exceptions.UnsupportedStatusException;
+import ru.practicum.shareit.core.pagination.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static ru.practicum.shareit.booking.model.Status.*;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookingStateFilter {
+    private static final LocalDateTime MIN = Cursor.MIN_TIMESTAMP;
+    private static final LocalDateTime MAX = Cursor.MAX_TIMESTAMP;
+    private static final Set<Status> ALL_STATUSES = EnumSet.allOf(Status.class);
+    private final Collection<Status> statuses;
+    private final LocalDateTime startAfter;
+    private final LocalDateTime startBefore;
+    private final LocalDateTime endAfter;
+    private final LocalDateTime endBefore;
+
+    public static BookingStateFilter of(String state, LocalDateTime now) {
+        switch (state) {
+            case "ALL":
+                return new BookingStateFilter(ALL_STATUSES, MIN, MAX, MIN, MAX);
+            case "CURRENT":
+                return new BookingStateFilter(ALL_STATUSES, MIN, now, now, MAX);
+            case "PAST":
+                return new BookingStateFilter(ALL_STATUSES, MIN, MAX, MIN, now);
+            case "FUTURE":
+                return new BookingStateFilter(ALL_STATUSES, now, MAX, MIN, MAX);
+            case "WAITING":
+                return new BookingStateFilter(EnumSet.of(WAITING), MIN, MAX, MIN, MAX);
+            case "REJECTED":
+                return new BookingStateFilter(EnumSet.of(REJECTED), MIN, MAX, MIN, MAX);
+            default:
+                throw new UnsupportedStatusException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+}
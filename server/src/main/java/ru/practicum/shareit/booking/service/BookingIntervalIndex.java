@@ -0,0 +1,219 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.core.exception.exceptions.BookingBadRequestException;
+import ru.practicum.shareit.core.transaction.TransactionHooks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.*;
+import java.util.function.*;
+
+import static ru.practicum.shareit.booking.model.Status.*;
+
+/**
+ * In-process index of active booking intervals per item, so an overlap is found with a tree lookup instead of a
+ * range scan over the item's bookings.
+ * <p>
+ * The item row stays the arbiter between server instances. Every booking change locks it and bumps its
+ * {@code booking_version}; the index trusts an item's intervals only while their version matches the row's and
+ * reloads them otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    public static final Set<Status> ACTIVE_STATUSES = EnumSet.of(WAITING, APPROVED);
+    private static final int STRIPES = 64;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final Lock[] locks = createLocks();
+    private final Map<Long, ItemIntervals> intervals = new ConcurrentHashMap<>();
+
+    /**
+     * Locks the booking's item until the end of the transaction, rejects the booking if it overlaps another active
+     * one and otherwise writes it. Its interval joins the index once the transaction commits.
+     */
+    public Booking reserve(Booking booking, Supplier<Booking> writer) {
+        Item item = booking.getItem();
+        long version = itemRepository.findBookingVersionLocked(item.getId());
+        Lock lock = lockFor(item.getId());
+        lock.lock();
+
+        try {
+            if (getItemIntervals(item, version).overlaps(booking.getStart(), booking.getEnd(), booking.getId())) {
+                throw new BookingBadRequestException("Вещь уже забронирована на указанный период.");
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Booking saved = writer.get();
+        updateAfterCommit(item.getId(), version,
+            itemIntervals -> itemIntervals.add(saved.getId(), saved.getStart(), saved.getEnd()));
+
+        return saved;
+    }
+
+    /**
+     * Frees the booking's interval once the transaction commits.
+     */
+    public void release(Booking booking) {
+        long itemId = booking.getItem().getId();
+        long version = itemRepository.findBookingVersionLocked(itemId);
+
+        updateAfterCommit(itemId, version, itemIntervals -> itemIntervals.remove(booking.getId(), booking.getStart()));
+    }
+
+    /**
+     * Drops the deleted user's items. Items the user booked are reloaded on their next reservation, as
+     * {@link ru.practicum.shareit.user.service.UserService#delete} bumps their version.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        for (Long itemId : List.copyOf(intervals.keySet())) {
+            withLock(itemId, () -> {
+                ItemIntervals itemIntervals = intervals.get(itemId);
+                if (itemIntervals != null && itemIntervals.ownerId == event.getUserId()) {
+                    intervals.remove(itemId);
+                }
+            });
+        }
+    }
+
+    private ItemIntervals getItemIntervals(Item item, long version) {
+        ItemIntervals cached = intervals.get(item.getId());
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+
+        ItemIntervals loaded = new ItemIntervals(item.getOwner(), version);
+        for (ShortBookingDto booking : bookingRepository.findIntervalsByItemId(item.getId(), ACTIVE_STATUSES,
+            LocalDateTime.now())) {
+            loaded.add(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+        intervals.put(item.getId(), loaded);
+
+        return loaded;
+    }
+
+    /**
+     * Bumps the item's version in the current transaction and applies the change after commit, unless the entry no
+     * longer holds the version read under the row lock. Such an entry is reloaded on its next use anyway.
+     */
+    private void updateAfterCommit(long itemId, long version, Consumer<ItemIntervals> change) {
+        itemRepository.incrementBookingVersion(itemId);
+        TransactionHooks.afterCommit(() -> withLock(itemId, () -> {
+            ItemIntervals itemIntervals = intervals.get(itemId);
+            if (itemIntervals != null && itemIntervals.version == version) {
+                change.accept(itemIntervals);
+                itemIntervals.version = version + 1;
+            }
+        }));
+    }
+
+    private void withLock(long itemId, Runnable action) {
+        Lock lock = lockFor(itemId);
+        lock.lock();
+
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockFor(long itemId) {
+        return locks[Math.floorMod(Long.hashCode(itemId), STRIPES)];
+    }
+
+    private static Lock[] createLocks() {
+        Lock[] locks = new Lock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static class ItemIntervals {
+        private final long ownerId;
+        private final NavigableMap<IntervalKey, LocalDateTime> byStart = new TreeMap<>();
+        private long version;
+        private Duration longest = Duration.ZERO;
+
+        ItemIntervals(long ownerId, long version) {
+            this.ownerId = ownerId;
+            this.version = version;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end, Long ignoredId) {
+            prune(LocalDateTime.now());
+            IntervalKey from = new IntervalKey(start.minus(longest), Long.MIN_VALUE);
+            IntervalKey to = new IntervalKey(end, Long.MIN_VALUE);
+
+            for (Map.Entry<IntervalKey, LocalDateTime> entry : byStart.subMap(from, false, to, false).entrySet()) {
+                if (entry.getValue().isAfter(start) && !entry.getKey().id.equals(ignoredId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Long id, LocalDateTime start, LocalDateTime end) {
+            byStart.put(new IntervalKey(start, id), end);
+            Duration duration = Duration.between(start, end);
+            if (duration.compareTo(longest) > 0) {
+                longest = duration;
+            }
+        }
+
+        void remove(Long id, LocalDateTime start) {
+            byStart.remove(new IntervalKey(start, id));
+        }
+
+        private void prune(LocalDateTime now) {
+            byStart.headMap(new IntervalKey(now.minus(longest), Long.MIN_VALUE)).clear();
+        }
+    }
+
+    private static class IntervalKey implements Comparable<IntervalKey> {
+        private final LocalDateTime start;
+        private final Long id;
+
+        IntervalKey(LocalDateTime start, Long id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IntervalKey other) {
+            int result = start.compareTo(other.start);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IntervalKey)) {
+                return false;
+            }
+            IntervalKey other = (IntervalKey) o;
+            return start.equals(other.start) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, id);
+        }
+    }
+}
@@ -6,16 +6,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.*;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.dto.BookingMapper.*;
@@ -28,12 +31,15 @@ public class BookingService implements BookingServiceInterface {
     private final ItemService itemService;
     private final UserService userService;
     private final StartAndEndValidator startAndEndValidator;
+    private final ItemSearchCache itemSearchCache;
+    private final ChangeLog changeLog;
+    private final BookingIntervalIndex bookingIntervalIndex;
     public static final Sort SORT = Sort.by("start").descending();
 
     @Transactional
     @Override
     public BookingDto save(Long userId, ShortBookingDto dto) {
-        Item item = itemService.getExistingItem(dto.getItemId());
+        Item item = itemService.getExistingItemWithRequest(dto.getItemId());
         User booker = userService.getExistingUser(userId);
 
         if (item.getOwner().equals(userId)) {
@@ -47,15 +53,18 @@ public class BookingService implements BookingServiceInterface {
         startAndEndValidator.validate(dto);
         Booking booking = toBooking(dto, item, booker);
         booking.setStatus(WAITING);
+        Booking saved = bookingIntervalIndex.reserve(booking, () -> bookingRepository.save(booking));
+        itemSearchCache.invalidateItemAfterCommit(item.getId());
+        changeLog.record(ChangeType.ITEM, item.getId());
 
-        return toBookingDto(bookingRepository.save(booking));
+        return toBookingDto(saved);
     }
 
     @Transactional
     @Override
     public BookingDto approve(Long userId, Long bookingId, Boolean approved) {
         Booking booking = getExistingBooking(bookingId);
-        Item item = itemService.getExistingItem(booking.getItem().getId());
+        Item item = booking.getItem();
 
         if (!item.getOwner().equals(userId)) {
             throw new BookingNotFoundException("Запрос может быть выполнен только владельцем вещи.");
@@ -66,10 +75,21 @@ public class BookingService implements BookingServiceInterface {
             throw new BookingBadRequestException("Ваша заявка уже ожидает подтверждения.");
         }
 
+        Status previous = booking.getStatus();
         booking.setStatus(status);
-        booking = bookingRepository.save(booking);
+        Booking saved;
+        if (status == APPROVED) {
+            saved = bookingIntervalIndex.reserve(booking, () -> bookingRepository.save(booking));
+        } else {
+            if (BookingIntervalIndex.ACTIVE_STATUSES.contains(previous)) {
+                bookingIntervalIndex.release(booking);
+            }
+            saved = bookingRepository.save(booking);
+        }
+        itemSearchCache.invalidateItemAfterCommit(item.getId());
+        changeLog.record(ChangeType.ITEM, item.getId());
 
-        return toBookingDto(booking);
+        return toBookingDto(saved);
     }
 
     @Transactional(readOnly = true)
@@ -88,7 +108,7 @@ public class BookingService implements BookingServiceInterface {
         userService.getExistingUser(userId);
 
         state = checkUserBookingState(state);
-        Pageable pageable = PageRequest.of(from / size, size, SORT);
+        Pageable pageable = toPageable(from, size, SORT);
         List<Booking> bookings;
 
         switch (state) {
@@ -126,7 +146,7 @@ public class BookingService implements BookingServiceInterface {
         hasUserZeroItems(userId);
 
         state = checkUserBookingState(state);
-        Pageable pageable = PageRequest.of(from / size, size, SORT);
+        Pageable pageable = toPageable(from, size, SORT);
         List<Booking> bookings;
 
         switch (state) {
@@ -135,7 +155,7 @@ public class BookingService implements BookingServiceInterface {
                 break;
             case "CURRENT":
                 bookings = bookingRepository.findBookingsByItemOwnerCurrent(userId, LocalDateTime.now(),
-                    PageRequest.of(from / size, size, Sort.by("start").ascending()));
+                    toPageable(from, size, Sort.by("start").ascending()));
                 break;
             case "PAST":
                 bookings = bookingRepository.findBookingsByItemOwnerAndEndIsBefore(userId, LocalDateTime.now(), pageable);
@@ -158,6 +178,105 @@ public class BookingService implements BookingServiceInterface {
             .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<BookingDto> findByUserIdAndStateAfterCursor(Long userId, String state, String cursor, int size) {
+        userService.getExistingUser(userId);
+
+        BookingStateFilter filter = BookingStateFilter.of(checkUserBookingState(state), LocalDateTime.now());
+        List<Booking> bookings = bookingRepository.findByBookerIdAfterCursor(userId, filter,
+            Cursor.decode(cursor, Sort.Direction.DESC, true), toPageable(0, size, Sort.unsorted()));
+
+        return toCursorPage(bookings, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<BookingDto> findBookingsByItemOwnerIdAfterCursor(Long userId, String state, String cursor,
+        int size) {
+        userService.getExistingUser(userId);
+        hasUserZeroItems(userId);
+
+        state = checkUserBookingState(state);
+        BookingStateFilter filter = BookingStateFilter.of(state, LocalDateTime.now());
+        List<Booking> bookings;
+
+        if (state.equals("CURRENT")) {
+            bookings = bookingRepository.findByItemOwnerAfterCursorAscending(userId, filter,
+                Cursor.decode(cursor, Sort.Direction.ASC, true), toPageable(0, size, Sort.unsorted()));
+        } else {
+            bookings = bookingRepository.findByItemOwnerAfterCursor(userId, filter,
+                Cursor.decode(cursor, Sort.Direction.DESC, true), toPageable(0, size, Sort.unsorted()));
+        }
+
+        return toCursorPage(bookings, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CompactBookingDto> findCompactByUserIdAndState(Long userId, String state, String cursor,
+        int from, int size) {
+        userService.getExistingUser(userId);
+
+        BookingStateFilter filter = BookingStateFilter.of(checkUserBookingState(state), LocalDateTime.now());
+        List<CompactBookingDto> bookings = bookingRepository.findCompactByBookerId(userId, filter,
+            Cursor.decode(cursor, Sort.Direction.DESC, true), toCompactPageable(cursor, from, size));
+
+        return toCompactPage(bookings, cursor, size);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CompactBookingDto> findCompactBookingsByItemOwnerId(Long userId, String state, String cursor,
+        int from, int size) {
+        userService.getExistingUser(userId);
+        hasUserZeroItems(userId);
+
+        state = checkUserBookingState(state);
+        BookingStateFilter filter = BookingStateFilter.of(state, LocalDateTime.now());
+        Pageable pageable = toCompactPageable(cursor, from, size);
+        List<CompactBookingDto> bookings;
+
+        if (state.equals("CURRENT")) {
+            bookings = bookingRepository.findCompactByItemOwnerAscending(userId, filter,
+                Cursor.decode(cursor, Sort.Direction.ASC, true), pageable);
+        } else {
+            bookings = bookingRepository.findCompactByItemOwner(userId, filter,
+                Cursor.decode(cursor, Sort.Direction.DESC, true), pageable);
+        }
+
+        return toCompactPage(bookings, cursor, size);
+    }
+
+    private Pageable toCompactPageable(String cursor, int from, int size) {
+        return toPageable(cursor == null ? from : 0, size, Sort.unsorted());
+    }
+
+    private Pageable toPageable(int from, int size, Sort sort) {
+        if (from < 0 || size <= 0) {
+            throw new BookingBadRequestException(
+                "Некорректные параметры пагинации: from=" + from + ", size=" + size + ".");
+        }
+
+        return PageRequest.of(from / size, size, sort);
+    }
+
+    private CursorPage<CompactBookingDto> toCompactPage(List<CompactBookingDto> bookings, String cursor, int size) {
+        if (cursor == null) {
+            return new CursorPage<>(bookings, null);
+        }
+
+        return CursorPage.of(bookings, size, booking -> new Cursor(booking.getStart(), booking.getId()));
+    }
+
+    private CursorPage<BookingDto> toCursorPage(List<Booking> bookings, int size) {
+        List<BookingDto> content = bookings.stream()
+            .map(BookingMapper::toBookingDto)
+            .collect(Collectors.toList());
+
+        return CursorPage.of(content, size, booking -> new Cursor(booking.getStart(), booking.getId()));
+    }
+
     private String checkUserBookingState(String state) {
         if (state == null || state.isBlank()) {
             state = "ALL";
@@ -205,19 +324,29 @@ public class BookingService implements BookingServiceInterface {
     }
 
     public void fillItemWithBookings(ItemDto result) {
+        fillItemsWithBookings(List.of(result));
+    }
+
+    public void fillItemsWithBookings(Collection<ItemDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
         LocalDateTime now = LocalDateTime.now();
-        bookingRepository
-            .findBookingByItemIdAndStartBefore(result.getId(), now)
+        List<Long> itemIds = items.stream()
+            .map(ItemDto::getId)
+            .collect(Collectors.toList());
+        Map<Long, ShortBookingDto> lastBookings = bookingRepository.findLastBookingsByItemIds(itemIds, now)
             .stream()
-            .findFirst().ifPresent(lastBooking -> result.setLastBooking(toShortBookingDto(lastBooking)));
-
-        bookingRepository
-            .findBookingByItemIdAndStartAfter(result.getId(), now)
+            .collect(Collectors.toMap(ShortBookingDto::getItemId, Function.identity()));
+        Map<Long, ShortBookingDto> nextBookings = bookingRepository.findNextBookingsByItemIds(itemIds, now)
             .stream()
-            .findFirst().ifPresent(nextBooking -> result.setNextBooking(toShortBookingDto(nextBooking)));
+            .collect(Collectors.toMap(ShortBookingDto::getItemId, Function.identity()));
 
-        if (result.getLastBooking() == null) {
-            result.setNextBooking(null);
+        for (ItemDto item : items) {
+            ShortBookingDto lastBooking = lastBookings.get(item.getId());
+            item.setLastBooking(lastBooking);
+            item.setNextBooking(lastBooking != null ? nextBookings.get(item.getId()) : null);
         }
     }
 }
\ No newline at end of file
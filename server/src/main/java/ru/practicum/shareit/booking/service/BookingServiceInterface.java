@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.core.pagination.CursorPage;
 
 import java.util.Collection;
 
@@ -14,4 +15,14 @@ public interface BookingServiceInterface {
     Collection<BookingDto> findByUserIdAndState(Long userId, String state, int from, int size);
 
     Collection<BookingDto> findBookingsByItemOwnerId(Long userId, String state, int from, int size);
-}
\ No newline at end of file
+
+    CursorPage<BookingDto> findByUserIdAndStateAfterCursor(Long userId, String state, String cursor, int size);
+
+    CursorPage<BookingDto> findBookingsByItemOwnerIdAfterCursor(Long userId, String state, String cursor, int size);
+
+    CursorPage<CompactBookingDto> findCompactByUserIdAndState(Long userId, String state, String cursor, int from,
+        int size);
+
+    CursorPage<CompactBookingDto> findCompactBookingsByItemOwnerId(Long userId, String state, String cursor, int from,
+        int size);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.core.change;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "change_events")
+public class ChangeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_event_id", nullable = false)
+    private Long id;
+    @Column(nullable = false)
+    private long seq;
+    @Column(name = "instance_id", nullable = false)
+    private String instanceId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeType type;
+    @Column(name = "entity_id", nullable = false)
+    private long entityId;
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime created;
+
+    public ChangeEvent(long seq, String instanceId, ChangeType type, long entityId) {
+        this.seq = seq;
+        this.instanceId = instanceId;
+        this.type = type;
+        this.entityId = entityId;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.core.change;
+
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+    List<ChangeEvent> findBySeqGreaterThanOrderBySeqAsc(long seq);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update change_log_head set seq = seq + 1", nativeQuery = true)
+    void advanceHead();
+
+    @Query(value = "select seq from change_log_head", nativeQuery = true)
+    long findHead();
+
+    @Modifying
+    @Query("delete from ChangeEvent e where e.created < ?1")
+    int deleteCreatedBefore(LocalDateTime created);
+
+    @Query(value = "select localtimestamp", nativeQuery = true)
+    LocalDateTime now();
+}
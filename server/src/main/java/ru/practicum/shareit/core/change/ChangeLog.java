@@ -0,0 +1,82 @@
+package ru.practicum.shareit.core.change;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Tells the other server instances about changes to the data they cache. A service records each change as the last
+ * write of the transaction that makes it, and every instance polls the log every {@code change-log.poll-interval} and
+ * publishes the changes of the others to its own caches: a deleted user as a {@link UserDeletedEvent}, anything else
+ * as a {@link RemoteChange}.
+ *
+ * <p>Each change takes the next number of the single {@code change_log_head} row, whose lock is held until the
+ * transaction ends. Numbers are therefore committed in order and without gaps, and a poll reads on from the last
+ * number it has seen. Writing transactions take turns from their first recorded change to their commit, which is
+ * why the change is recorded last.
+ */
+@Component
+@Slf4j
+public class ChangeLog {
+    private final ChangeEventRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final String instanceId = UUID.randomUUID().toString();
+    private Long lastSeq;
+
+    public ChangeLog(ChangeEventRepository repository, ApplicationEventPublisher eventPublisher,
+        @Value("${change-log.retention}") Duration retention) {
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+    }
+
+    /**
+     * Flushes the pending writes of the current transaction first, so that the head row is the last lock it takes.
+     */
+    public void record(ChangeType type, long entityId) {
+        repository.advanceHead();
+        repository.save(new ChangeEvent(repository.findHead(), instanceId, type, entityId));
+    }
+
+    /**
+     * Runs outside a transaction, so that each listener commits on its own and one failing change does not roll
+     * back the others. The first poll starts from the current head, as nothing is cached yet.
+     */
+    @Scheduled(fixedDelayString = "${change-log.poll-interval}")
+    public synchronized void poll() {
+        if (lastSeq == null) {
+            lastSeq = repository.findHead();
+        }
+
+        for (ChangeEvent event : repository.findBySeqGreaterThanOrderBySeqAsc(lastSeq)) {
+            lastSeq = event.getSeq();
+            if (!instanceId.equals(event.getInstanceId())) {
+                publish(event);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${change-log.retention}", fixedDelayString = "${change-log.retention}")
+    @Transactional
+    public void purge() {
+        repository.deleteCreatedBefore(repository.now().minus(retention));
+    }
+
+    private void publish(ChangeEvent event) {
+        try {
+            eventPublisher.publishEvent(event.getType() == ChangeType.USER_DELETED
+                ? new UserDeletedEvent(event.getEntityId())
+                : new RemoteChange(event.getType(), event.getEntityId()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply change {} {} of another instance", event.getType(), event.getEntityId(), e);
+        }
+    }
+}
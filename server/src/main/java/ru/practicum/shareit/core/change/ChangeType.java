@@ -0,0 +1,5 @@
+package ru.practicum.shareit.core.change;
+
+public enum ChangeType {
+    USER, USER_DELETED, ITEM, REQUEST
+}
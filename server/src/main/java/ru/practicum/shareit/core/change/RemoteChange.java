@@ -0,0 +1,13 @@
+package ru.practicum.shareit.core.change;
+
+import lombok.*;
+
+/**
+ * A change made by another server instance, published by {@link ChangeLog} for the caches of this one.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RemoteChange {
+    private final ChangeType type;
+    private final long entityId;
+}
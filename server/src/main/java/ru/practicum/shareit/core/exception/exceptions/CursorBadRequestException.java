@@ -0,0 +1,7 @@
+package ru.practicum.shareit.core.exception.exceptions;
+
+public class CursorBadRequestException extends BadRequestException {
+    public CursorBadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.core.pagination;
+
+import lombok.*;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.core.exception.exceptions.CursorBadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1, 1, 1, 0, 0);
+    public static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final String SEPARATOR = "|";
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public static Cursor first(Sort.Direction direction) {
+        return direction.isAscending()
+            ? new Cursor(MIN_TIMESTAMP, Long.MIN_VALUE)
+            : new Cursor(MAX_TIMESTAMP, Long.MAX_VALUE);
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode()}. Listings keyed by timestamp and id must pass
+     * {@code timestampRequired}; only id-keyed listings may accept a cursor without a timestamp.
+     */
+    public static Cursor decode(String value, Sort.Direction direction, boolean timestampRequired) {
+        if (value == null || value.isBlank()) {
+            return first(direction);
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            String timestamp = raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+            if (timestamp.isEmpty() && timestampRequired) {
+                throw new CursorBadRequestException("Некорректный курсор: " + value);
+            }
+
+            return new Cursor(timestamp.isEmpty() ? null : LocalDateTime.parse(timestamp), id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new CursorBadRequestException("Некорректный курсор: " + value);
+        }
+    }
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.core.pagination;
+
+import lombok.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@RequiredArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+
+    public static <T> CursorPage<T> of(List<T> content, int size, Function<T, Cursor> cursorExtractor) {
+        String nextCursor = content.size() < size || content.isEmpty()
+            ? null
+            : cursorExtractor.apply(content.get(content.size() - 1)).encode();
+
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(Cursor.NEXT_CURSOR_HEADER, nextCursor);
+        }
+
+        return builder.body(content);
+    }
+}
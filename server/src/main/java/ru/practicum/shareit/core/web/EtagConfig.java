@@ -0,0 +1,40 @@
+package ru.practicum.shareit.core.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.*;
+import org.springframework.util.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+@Configuration
+public class EtagConfig {
+    /**
+     * Registers the ETag filter for the by-id GET routes only ({@code etag.paths}, Ant patterns). List endpoints
+     * are left out so their bodies are not buffered and hashed.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> etagFilter(@Value("${etag.paths}") List<String> paths) {
+        return new FilterRegistrationBean<>(new ByIdEtagHeaderFilter(paths));
+    }
+
+    private static class ByIdEtagHeaderFilter extends ShallowEtagHeaderFilter {
+        private final List<String> paths;
+        private final PathMatcher matcher = new AntPathMatcher();
+        private final UrlPathHelper pathHelper = new UrlPathHelper();
+
+        ByIdEtagHeaderFilter(List<String> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            String path = pathHelper.getPathWithinApplication(request);
+            return !"GET".equals(request.getMethod())
+                || paths.stream().noneMatch(pattern -> matcher.match(pattern, path));
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemServiceInterface;
 
-import java.util.Collection;
+import java.util.*;
 
 @RestController
 @RequestMapping("/items")
@@ -25,6 +26,14 @@ public class ItemController {
         return itemServiceInterface.saveComment(userId, itemId, dto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> findComments(@RequestHeader("X-Sharer-User-Id") Long userId,
+        @PathVariable Long itemId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "10", required = false) Integer size) {
+        return itemServiceInterface.findComments(userId, itemId, cursor, size).toResponseEntity();
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId,
         @PathVariable Long itemId,
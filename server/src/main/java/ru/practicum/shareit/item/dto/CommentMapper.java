@@ -14,6 +14,15 @@ public class CommentMapper {
             .build();
     }
 
+    public static CommentDto toCommentDto(ItemCommentView comment) {
+        return CommentDto.builder()
+            .id(comment.getId())
+            .text(comment.getText())
+            .authorName(comment.getAuthorName())
+            .created(comment.getCreated())
+            .build();
+    }
+
     public static Comment toComment(CommentDto dto) {
         return Comment.builder()
             .id(dto.getId())
@@ -15,6 +15,7 @@ public class ItemDto {
     private String description;
     private Boolean available;
     private List<CommentDto> comments;
+    private Long commentsCount;
     private ShortBookingDto lastBooking;
     private ShortBookingDto nextBooking;
     private Long requestId;
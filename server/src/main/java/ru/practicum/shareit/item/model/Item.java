@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.*;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -10,7 +11,11 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "items")
+@NamedEntityGraph(name = "Item.request",
+    attributeNodes = @NamedAttributeNode(value = "request", subgraph = "request"),
+    subgraphs = @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requester")))
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,7 +29,7 @@ public class Item {
     private Boolean available;
     @Column(name = "owner_id", nullable = false)
     private Long owner;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.core.cache.BoundedCache;
+import ru.practicum.shareit.core.transaction.TransactionHooks;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.*;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemSearchCache {
+    private final BoundedCache<Key, List<ItemDto>> cache;
+
+    @Autowired
+    public ItemSearchCache(MeterRegistry registry, @Value("${item-search.cache.max-size}") int maxSize,
+        @Value("${item-search.cache.ttl}") Duration ttl) {
+        this(registry, maxSize, ttl, Clock.systemUTC());
+    }
+
+    ItemSearchCache(MeterRegistry registry, int maxSize, Duration ttl, Clock clock) {
+        cache = new BoundedCache<>(registry, "item-search", maxSize, ttl, clock, null);
+    }
+
+    public List<ItemDto> get(String text, int from, int size, Supplier<List<ItemDto>> loader) {
+        Key key = new Key(normalize(text), from / size * size, size);
+
+        return cache.get(key, ignored -> List.copyOf(loader.get()))
+            .stream()
+            .map(ItemSearchCache::copy)
+            .collect(Collectors.toList());
+    }
+
+    public void invalidateMatchingAfterCommit(String... texts) {
+        List<String> normalized = Arrays.stream(texts)
+            .filter(Objects::nonNull)
+            .map(ItemSearchCache::normalize)
+            .collect(Collectors.toList());
+
+        TransactionHooks.afterCommit(() -> cache.invalidateIf(
+            (key, items) -> normalized.stream().anyMatch(text -> text.contains(key.text))));
+    }
+
+    public void invalidateItemAfterCommit(long itemId) {
+        TransactionHooks.afterCommit(() -> cache.invalidateIf(
+            (key, items) -> items.stream().anyMatch(item -> item.getId() == itemId)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Cached items are shared by every caller, so each gets its own copy to enrich or modify. Comments and bookings
+     * have no setters and are shared as they are.
+     */
+    private static ItemDto copy(ItemDto item) {
+        return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+            item.getComments() != null ? new ArrayList<>(item.getComments()) : null, item.getCommentsCount(),
+            item.getLastBooking(), item.getNextBooking(), item.getRequestId());
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String text;
+        private final int offset;
+        private final int size;
+    }
+}
@@ -0,0 +1,288 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.*;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.core.transaction.TransactionHooks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.stream.Collectors;
+
+/**
+ * In-process n-gram index over item names and descriptions. Every item is indexed by its 1-, 2- and 3-grams, so a
+ * query of any length is answered from posting lists: a short query by the list of its own gram, a longer one by
+ * intersecting its trigram lists and checking the few candidates left.
+ */
+@Component
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "index")
+@RequiredArgsConstructor
+public class ItemSearchIndex implements ItemSearchStrategy {
+    private static final int GRAM = 3;
+    private static final int LOAD_BATCH = 1000;
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private NavigableMap<Long, IndexedItem> items = new TreeMap<>();
+    private Map<Long, Postings> postings = new HashMap<>();
+    private List<Runnable> changedDuringLoad;
+    private volatile boolean loaded;
+
+    /**
+     * Builds the index from id-ordered batches outside the lock once the application is ready. Until the build is
+     * swapped in, searches use the database LIKE query. Changes committed meanwhile are replayed on the new index
+     * when it is swapped in; later ones, including other instances' through the change log, are applied as they
+     * come.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        NavigableMap<Long, IndexedItem> loadedItems = new TreeMap<>();
+        Map<Long, Postings> loadedPostings = new HashMap<>();
+        List<Runnable> changes = new ArrayList<>();
+        withWriteLock(() -> changedDuringLoad = changes);
+
+        try {
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_BATCH));
+                for (Item item : batch) {
+                    add(loadedItems, loadedPostings, IndexedItem.of(item));
+                    lastId = item.getId();
+                }
+            } while (batch.size() == LOAD_BATCH);
+
+            withWriteLock(() -> {
+                items = loadedItems;
+                postings = loadedPostings;
+                changes.forEach(Runnable::run);
+                loaded = true;
+            });
+        } finally {
+            withWriteLock(() -> changedDuringLoad = null);
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (!loaded) {
+            return itemRepository.search(text, pageable);
+        }
+
+        List<Long> ids = findIds(text, (int) pageable.getOffset(), pageable.getPageSize());
+
+        return itemRepository.findAllById(ids)
+            .stream()
+            .sorted(Comparator.comparing(Item::getId))
+            .collect(Collectors.toList());
+    }
+
+    List<Long> findIds(String text, int offset, int limit) {
+        String query = normalize(text);
+        List<Long> result = new ArrayList<>();
+        lock.readLock().lock();
+
+        try {
+            int skipped = 0;
+            for (long id : candidates(query)) {
+                IndexedItem item = items.get(id);
+                if (item.matches(query)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        result.add(id);
+                        if (result.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    @Override
+    public void indexAfterCommit(Item item) {
+        IndexedItem indexed = IndexedItem.of(item);
+        TransactionHooks.afterCommit(() -> index(indexed));
+    }
+
+    @Override
+    public void removeAfterCommit(long itemId) {
+        TransactionHooks.afterCommit(() -> apply(() -> remove(items.get(itemId))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        apply(() -> items.values().stream()
+            .filter(item -> item.owner == event.getUserId())
+            .map(item -> item.id)
+            .collect(Collectors.toList())
+            .forEach(id -> remove(items.get(id))));
+    }
+
+    private void index(IndexedItem item) {
+        apply(() -> {
+            remove(items.get(item.id));
+            add(items, postings, item);
+        });
+    }
+
+    private void apply(Runnable change) {
+        withWriteLock(() -> {
+            change.run();
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Iterable<Long> candidates(String query) {
+        List<Postings> lists = new ArrayList<>();
+        for (long gram : grams(query, Math.min(GRAM, query.length()))) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return List.of();
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        Postings smallest = lists.get(0);
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < smallest.size; i++) {
+            long id = smallest.ids[i];
+            boolean inAll = true;
+            for (int j = 1; j < lists.size() && inAll; j++) {
+                inAll = lists.get(j).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+
+        return result;
+    }
+
+    private static void add(Map<Long, IndexedItem> items, Map<Long, Postings> postings, IndexedItem item) {
+        items.put(item.id, item);
+        for (long gram : item.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(item.id);
+        }
+    }
+
+    private void remove(IndexedItem item) {
+        if (item == null) {
+            return;
+        }
+
+        items.remove(item.id);
+        for (long gram : item.grams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(item.id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Packs each n-gram of the text into a long: the length above the 16-bit chars, so grams of different
+     * lengths never collide.
+     */
+    private static Set<Long> grams(String text, int length) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + length <= text.length(); i++) {
+            long gram = length;
+            for (int j = i; j < i + length; j++) {
+                gram = gram << 16 | text.charAt(j);
+            }
+            result.add(gram);
+        }
+        return result;
+    }
+
+    @RequiredArgsConstructor
+    private static class IndexedItem {
+        private final long id;
+        private final long owner;
+        private final boolean available;
+        private final String name;
+        private final String description;
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), item.getOwner(), Boolean.TRUE.equals(item.getAvailable()),
+                normalize(item.getName()), normalize(item.getDescription()));
+        }
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        Set<Long> grams() {
+            Set<Long> result = new HashSet<>();
+            for (int length = 1; length <= GRAM; length++) {
+                result.addAll(ItemSearchIndex.grams(name, length));
+                result.addAll(ItemSearchIndex.grams(description, length));
+            }
+            return result;
+        }
+    }
+
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchStrategy {
+    String PROPERTY = "item-search.strategy";
+
+    List<Item> search(String text, Pageable pageable);
+
+    default void indexAfterCommit(Item item) {
+    }
+
+    default void removeAfterCommit(long itemId) {
+    }
+}
@@ -2,16 +2,19 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.*;
 import ru.practicum.shareit.item.storage.*;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.service.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -24,20 +27,30 @@ import static ru.practicum.shareit.item.dto.ItemMapper.*;
 
 @Service
 public class ItemService implements ItemServiceInterface {
+    public static final int LATEST_COMMENTS = 10;
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final UserService userService;
     private final BookingService bookingService;
     private final ItemRequestService requestService;
+    private final ItemSearchStrategy itemSearch;
+    private final ItemSearchCache searchCache;
+    private final ItemRequestFeed requestFeed;
+    private final ChangeLog changeLog;
 
     @Autowired
     public ItemService(ItemRepository itemRepository, CommentRepository commentRepository, UserService userService,
-        @Lazy BookingService bookingService, @Lazy ItemRequestService requestService) {
+        @Lazy BookingService bookingService, @Lazy ItemRequestService requestService,
+        ItemSearchStrategy itemSearch, ItemSearchCache searchCache, ItemRequestFeed requestFeed, ChangeLog changeLog) {
         this.itemRepository = itemRepository;
         this.commentRepository = commentRepository;
         this.userService = userService;
         this.bookingService = bookingService;
         this.requestService = requestService;
+        this.itemSearch = itemSearch;
+        this.searchCache = searchCache;
+        this.requestFeed = requestFeed;
+        this.changeLog = changeLog;
     }
 
     @Transactional
@@ -49,6 +62,10 @@ public class ItemService implements ItemServiceInterface {
         item.setOwner(userId);
         setRequestWhenCreateItem(item, dto);
         item = itemRepository.save(item);
+        itemSearch.indexAfterCommit(item);
+        searchCache.invalidateMatchingAfterCommit(item.getName(), item.getDescription());
+        putRequestItemAfterCommit(item);
+        changeLog.record(ChangeType.ITEM, item.getId());
 
         return toItemDto(item);
     }
@@ -61,8 +78,13 @@ public class ItemService implements ItemServiceInterface {
             throw new UserNotFoundException("Id пользователя не совпадает.");
         }
 
+        searchCache.invalidateMatchingAfterCommit(item.getName(), item.getDescription());
         updateItemProperties(item, dto);
         item = itemRepository.save(item);
+        itemSearch.indexAfterCommit(item);
+        searchCache.invalidateMatchingAfterCommit(item.getName(), item.getDescription());
+        putRequestItemAfterCommit(item);
+        changeLog.record(ChangeType.ITEM, item.getId());
 
         return fillItemWithCommentsAndBookings(item);
     }
@@ -73,7 +95,7 @@ public class ItemService implements ItemServiceInterface {
         userService.getExistingUser(userId);
         Item item = getExistingItem(itemId);
         ItemDto result = toItemDto(item);
-        fillItemWithComments(result, itemId);
+        fillItemsWithComments(List.of(result));
 
         if (item.getOwner().equals(userId)) {
             bookingService.fillItemWithBookings(result);
@@ -87,15 +109,10 @@ public class ItemService implements ItemServiceInterface {
     @Override
     public Collection<ItemDto> findAll(Long userId, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
-        List<ItemDto> result = new ArrayList<>();
         List<Item> items = itemRepository.findByOwner(userId, pageable);
         items = items.stream().sorted(Comparator.comparing(Item::getId)).collect(Collectors.toList());
 
-        for (Item item : items) {
-            result.add(fillItemWithCommentsAndBookings(item));
-        }
-
-        return result;
+        return fillItemsWithCommentsAndBookings(items);
     }
 
     @Transactional(readOnly = true)
@@ -105,15 +122,12 @@ public class ItemService implements ItemServiceInterface {
             return new ArrayList<>();
         }
 
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<ItemDto> result = new ArrayList<>();
-        List<Item> foundItems = itemRepository.search(text, pageable);
-
-        for (Item foundItem : foundItems) {
-            result.add(fillItemWithCommentsAndBookings(foundItem));
-        }
+        return searchCache.get(text, from, size, () -> {
+            Pageable pageable = PageRequest.of(from / size, size);
+            List<Item> foundItems = itemSearch.search(text, pageable);
 
-        return result;
+            return fillItemsWithCommentsAndBookings(foundItems);
+        });
     }
 
     public Item getExistingItem(long id) {
@@ -122,6 +136,31 @@ public class ItemService implements ItemServiceInterface {
         );
     }
 
+    public Item getExistingItemWithRequest(long id) {
+        return itemRepository.findWithRequestById(id).orElseThrow(
+            () -> new ItemNotFoundException("Товар с id " + id + " не найден.")
+        );
+    }
+
+    /**
+     * Brings this instance's search index, search cache and request feed up to date with an item changed by another
+     * instance. The item is read back, as the change only carries its id; an item that is gone leaves the index.
+     */
+    @EventListener
+    @Transactional(readOnly = true)
+    public void onRemoteChange(RemoteChange change) {
+        if (change.getType() != ChangeType.ITEM) {
+            return;
+        }
+
+        searchCache.invalidateItemAfterCommit(change.getEntityId());
+        itemRepository.findById(change.getEntityId()).ifPresentOrElse(item -> {
+            itemSearch.indexAfterCommit(item);
+            searchCache.invalidateMatchingAfterCommit(item.getName(), item.getDescription());
+            putRequestItemAfterCommit(item);
+        }, () -> itemSearch.removeAfterCommit(change.getEntityId()));
+    }
+
     private void setRequestWhenCreateItem(Item item, ItemDto dto) {
         if (dto.getRequestId() != null) {
             Long requestId = dto.getRequestId();
@@ -130,6 +169,12 @@ public class ItemService implements ItemServiceInterface {
         }
     }
 
+    private void putRequestItemAfterCommit(Item item) {
+        if (item.getRequest() != null) {
+            requestFeed.putItemAfterCommit(toItemDtoInRequest(item));
+        }
+    }
+
     private void updateItemProperties(Item item, ItemDto dto) {
         if (dto.getAvailable() != null) {
             item.setAvailable(dto.getAvailable());
@@ -146,23 +191,35 @@ public class ItemService implements ItemServiceInterface {
 
     private ItemDto fillItemWithCommentsAndBookings(Item item) {
         ItemDto result = toItemDto(item);
-        fillItemWithComments(result, item.getId());
+        fillItemsWithComments(List.of(result));
         bookingService.fillItemWithBookings(result);
 
         return result;
     }
 
-    public List<ItemDtoInRequest> getItemsByRequestId(long id) {
-        return itemRepository.findByRequestId(id)
-            .stream().map(ItemMapper::toItemDtoInRequest)
+    private List<ItemDto> fillItemsWithCommentsAndBookings(List<Item> items) {
+        List<ItemDto> result = items.stream()
+            .map(ItemMapper::toItemDto)
             .collect(Collectors.toList());
+
+        fillItemsWithComments(result);
+        bookingService.fillItemsWithBookings(result);
+
+        return result;
     }
 
-    public boolean hasUserZeroItems(long userId) {
-        return itemRepository.findAll()
+    public Map<Long, List<ItemDtoInRequest>> getItemsByRequestIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        return itemRepository.findByRequestIdIn(ids)
             .stream()
-            .filter(item -> item.getOwner().equals(userId))
-            .findAny().isEmpty();
+            .collect(Collectors.groupingBy(ItemDtoInRequest::getRequestId));
+    }
+
+    public boolean hasUserZeroItems(long userId) {
+        return !itemRepository.existsByOwner(userId);
     }
 
     @Transactional
@@ -176,18 +233,45 @@ public class ItemService implements ItemServiceInterface {
         comment.setCreated(LocalDateTime.now());
         comment.setItem(item);
         comment.setAuthor(user);
+        comment = commentRepository.save(comment);
+        searchCache.invalidateItemAfterCommit(itemId);
+        changeLog.record(ChangeType.ITEM, itemId);
+
+        return toCommentDto(comment);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<CommentDto> findComments(Long userId, Long itemId, String cursor, int size) {
+        userService.getExistingUser(userId);
+        getExistingItem(itemId);
+        List<CommentDto> comments = commentRepository.findByItemIdAfterCursor(itemId,
+                Cursor.decode(cursor, Sort.Direction.DESC, true), PageRequest.of(0, size))
+            .stream()
+            .map(CommentMapper::toCommentDto)
+            .collect(Collectors.toList());
 
-        return toCommentDto(commentRepository.save(comment));
+        return CursorPage.of(comments, size, comment -> new Cursor(comment.getCreated(), comment.getId()));
     }
 
-    public void fillItemWithComments(ItemDto result, Long itemId) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        if (!comments.isEmpty()) {
-            result.setComments(comments.stream()
+    public void fillItemsWithComments(Collection<ItemDto> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        List<Long> itemIds = items.stream()
+            .map(ItemDto::getId)
+            .collect(Collectors.toList());
+        Map<Long, List<ItemCommentView>> comments = commentRepository.findLatestByItemIds(itemIds, LATEST_COMMENTS)
+            .stream()
+            .collect(Collectors.groupingBy(ItemCommentView::getItemId));
+
+        for (ItemDto item : items) {
+            List<ItemCommentView> itemComments = comments.getOrDefault(item.getId(), List.of());
+            item.setComments(itemComments.stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList()));
-        } else {
-            result.setComments(new ArrayList<>());
+            item.setCommentsCount(itemComments.isEmpty() ? 0L : itemComments.get(0).getTotal());
         }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.core.pagination.CursorPage;
 import ru.practicum.shareit.item.dto.*;
 
 import java.util.Collection;
@@ -15,5 +16,7 @@ public interface ItemServiceInterface {
 
     Collection<ItemDto> search(Long userId, String text, int from, int size);
 
+    CursorPage<CommentDto> findComments(Long userId, Long itemId, String cursor, int size);
+
     CommentDto saveComment(Long userId, Long itemId, CommentDto dto);
 }
\ No newline at end of file
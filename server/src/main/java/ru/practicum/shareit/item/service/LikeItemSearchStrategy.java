@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = ItemSearchStrategy.PROPERTY, havingValue = "like")
+@RequiredArgsConstructor
+public class LikeItemSearchStrategy implements ItemSearchStrategy {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.search(text, pageable);
+    }
+}
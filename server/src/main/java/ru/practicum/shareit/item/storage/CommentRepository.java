@@ -1,10 +1,31 @@
 package ru.practicum.shareit.item.storage;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.item.dto.ItemCommentView;
 import ru.practicum.shareit.item.model.Comment;
 
-import java.util.List;
+import java.util.*;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
-}
\ No newline at end of file
+    @Query(value = "select ranked.comment_id as id, ranked.item_id as itemId, ranked.text as text, " +
+        "u.name as authorName, ranked.created as created, ranked.total as total " +
+        "from (select c.*, " +
+        "row_number() over (partition by c.item_id order by c.created desc, c.comment_id desc) as comment_rank, " +
+        "count(*) over (partition by c.item_id) as total " +
+        "from comments c where c.item_id in :itemIds) ranked " +
+        "join users u on u.user_id = ranked.author_id " +
+        "where ranked.comment_rank <= :limit " +
+        "order by ranked.item_id, ranked.comment_rank", nativeQuery = true)
+    List<ItemCommentView> findLatestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @EntityGraph("Comment.author")
+    @Query("select c from Comment c " +
+        "where c.item.id = :itemId " +
+        "and (c.created < :#{#cursor.timestamp} or (c.created = :#{#cursor.timestamp} and c.id < :#{#cursor.id})) " +
+        "order by c.created desc, c.id desc")
+    List<Comment> findByItemIdAfterCursor(@Param("itemId") Long itemId, @Param("cursor") Cursor cursor,
+        Pageable pageable);
+}
@@ -3,18 +3,51 @@ package ru.practicum.shareit.item.storage;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDtoInRequest;
 import ru.practicum.shareit.item.model.Item;
 
-import java.util.List;
+import java.util.*;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("select i from Item i " +
-        "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-        " or upper(i.description) like upper(concat('%', ?1, '%')) and i.available = true")
+        "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
+        " or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true")
     List<Item> search(String text, Pageable pageable);
 
-    List<Item> findByRequestId(Long requestId);
+    @Query(value = "select * from items i " +
+        "where i.is_available " +
+        " and (i.name ilike concat('%', ?1, '%') or i.description ilike concat('%', ?1, '%')) " +
+        "order by i.item_id", nativeQuery = true)
+    List<Item> searchTrigram(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoInRequest(" +
+        "i.id, i.name, i.description, i.available, i.request.id) " +
+        "from Item i where i.request.id in ?1")
+    List<ItemDtoInRequest> findByRequestIdIn(Collection<Long> requestIds);
 
     List<Item> findByOwner(Long userId, Pageable pageable);
+
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    boolean existsByOwner(Long userId);
+
+    @Query("select i.id from Item i " +
+        "where i.owner = ?1 or i.id in (select b.item.id from Booking b where b.booker.id = ?1)")
+    List<Long> findIdsByOwnerOrBooker(Long userId);
+
+    @EntityGraph("Item.request")
+    Optional<Item> findWithRequestById(Long id);
+
+    @Query(value = "select i.booking_version from items i where i.item_id = ?1 for update", nativeQuery = true)
+    long findBookingVersionLocked(Long id);
+
+    @Modifying
+    @Query(value = "update items set booking_version = booking_version + 1 where item_id = ?1", nativeQuery = true)
+    void incrementBookingVersion(Long id);
+
+    @Modifying
+    @Query(value = "update items set booking_version = booking_version + 1 " +
+        "where item_id in (select b.item_id from bookings b where b.booker_id = ?1)", nativeQuery = true)
+    void incrementBookingVersionByBooker(Long bookerId);
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestServiceInterface;
 
-import java.util.Collection;
+import java.util.*;
 
 @RestController
 @RequestMapping("/requests")
@@ -24,8 +25,14 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public Collection<ItemRequestDto> findAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.findAll(userId);
+    public Collection<ItemRequestDto> findAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam(required = false) Integer from,
+        @RequestParam(required = false) Integer size) {
+        if (from == null && size == null) {
+            return requestService.findAll(userId);
+        }
+
+        return requestService.findAll(userId, from == null ? 0 : from, size == null ? 10 : size);
     }
 
     @GetMapping("/all")
@@ -34,4 +41,11 @@ public class ItemRequestController {
         @RequestParam(defaultValue = "10", required = false) Integer size) {
         return requestService.findAllFromOtherUsers(userId, from, size);
     }
+
+    @GetMapping(path = "/all", params = "cursor")
+    public ResponseEntity<List<ItemRequestDto>> findAllFromOtherUsers(@RequestHeader("X-Sharer-User-Id") Long userId,
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "10", required = false) Integer size) {
+        return requestService.findAllFromOtherUsersAfterCursor(userId, cursor, size).toResponseEntity();
+    }
 }
\ No newline at end of file
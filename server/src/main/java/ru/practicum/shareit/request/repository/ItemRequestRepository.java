@@ -1,8 +1,10 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.*;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.core.pagination.Cursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
@@ -11,5 +13,17 @@ import java.util.List;
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequesterId(Long userId, Sort sort);
 
+    List<ItemRequest> findByRequesterId(Long userId, Pageable pageable);
+
     List<ItemRequest> findByRequesterIdIsNot(Long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest r order by r.created desc, r.id desc")
+    List<ItemRequest> findLatest(Pageable pageable);
+
+    @Query("select r from ItemRequest r " +
+        "where r.requester.id <> :userId " +
+        "and (r.created < :#{#cursor.timestamp} or (r.created = :#{#cursor.timestamp} and r.id < :#{#cursor.id})) " +
+        "order by r.created desc, r.id desc")
+    List<ItemRequest> findByRequesterIdIsNotAfterCursor(@Param("userId") Long userId, @Param("cursor") Cursor cursor,
+        Pageable pageable);
 }
\ No newline at end of file
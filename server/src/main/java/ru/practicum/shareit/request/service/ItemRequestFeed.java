@@ -0,0 +1,200 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.core.exception.exceptions.CursorBadRequestException;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.core.transaction.TransactionHooks;
+import ru.practicum.shareit.item.dto.ItemDtoInRequest;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.dto.*;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemRequestFeed {
+    private static final Comparator<Cursor> NEWEST_FIRST = Comparator.comparing(Cursor::getTimestamp)
+        .thenComparing(Cursor::getId)
+        .reversed();
+    private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Cursor, Entry> window = new TreeMap<>(NEWEST_FIRST);
+    private final Map<Long, Cursor> keys = new HashMap<>();
+    private boolean loaded;
+    private boolean complete;
+
+    public ItemRequestFeed(ItemRequestRepository requestRepository, ItemRepository itemRepository,
+        @Value("${request-feed.capacity}") int capacity) {
+        this.requestRepository = requestRepository;
+        this.itemRepository = itemRepository;
+        this.capacity = capacity;
+    }
+
+    public List<ItemRequestDto> find(long userId, Cursor cursor, int size) {
+        if (cursor.getTimestamp() == null) {
+            throw new CursorBadRequestException("Курсор запросов должен содержать время создания");
+        }
+
+        ensureLoaded();
+        List<ItemRequestDto> result = new ArrayList<>();
+        Cursor last = cursor;
+        boolean exhausted = true;
+        lock.readLock().lock();
+
+        try {
+            for (Map.Entry<Cursor, Entry> entry : window.tailMap(cursor, false).entrySet()) {
+                if (result.size() == size) {
+                    exhausted = false;
+                    break;
+                }
+                last = entry.getKey();
+                if (entry.getValue().requesterId != userId) {
+                    result.add(entry.getValue().copy());
+                }
+            }
+            exhausted = exhausted && !complete;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (exhausted && result.size() < size) {
+            List<ItemRequest> older = requestRepository.findByRequesterIdIsNotAfterCursor(userId, last,
+                PageRequest.of(0, size - result.size()));
+            result.addAll(toRequestDtos(older));
+        }
+
+        return result;
+    }
+
+    public void addAfterCommit(ItemRequest request) {
+        ItemRequestDto dto = RequestMapper.toRequestDto(request);
+        dto.setItems(List.of());
+        Entry entry = new Entry(request.getRequester().getId(), dto);
+        TransactionHooks.afterCommit(() -> write(() -> add(entry)));
+    }
+
+    public void putItemAfterCommit(ItemDtoInRequest item) {
+        TransactionHooks.afterCommit(() -> write(() -> {
+            Cursor key = keys.get(item.getRequestId());
+            if (key == null) {
+                return;
+            }
+
+            Entry entry = window.get(key);
+            List<ItemDtoInRequest> items = entry.request.getItems()
+                .stream()
+                .filter(existing -> !existing.getId().equals(item.getId()))
+                .collect(Collectors.toList());
+            items.add(item);
+            window.put(key, entry.withItems(items));
+        }));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        write(() -> loaded = false);
+    }
+
+    /**
+     * Loads the window on first use and after a user is deleted, as their requests go with them. Otherwise the
+     * window follows the writes of this instance and, through the change log, those of the others.
+     */
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        write(() -> {
+            if (loaded) {
+                return;
+            }
+
+            window.clear();
+            keys.clear();
+            List<ItemRequest> latest = requestRepository.findLatest(PageRequest.of(0, capacity + 1));
+            complete = latest.size() <= capacity;
+            List<ItemRequestDto> dtos = toRequestDtos(latest.subList(0, Math.min(capacity, latest.size())));
+            for (int i = 0; i < dtos.size(); i++) {
+                add(new Entry(latest.get(i).getRequester().getId(), dtos.get(i)));
+            }
+            loaded = true;
+        });
+    }
+
+    private void add(Entry entry) {
+        Cursor key = new Cursor(entry.request.getCreated(), entry.request.getId());
+        window.put(key, entry);
+        keys.put(entry.request.getId(), key);
+
+        while (window.size() > capacity) {
+            Entry oldest = window.pollLastEntry().getValue();
+            keys.remove(oldest.request.getId());
+            complete = false;
+        }
+    }
+
+    private List<ItemRequestDto> toRequestDtos(List<ItemRequest> requests) {
+        List<Long> ids = requests.stream()
+            .map(ItemRequest::getId)
+            .collect(Collectors.toList());
+        Map<Long, List<ItemDtoInRequest>> items = ids.isEmpty()
+            ? Map.of()
+            : itemRepository.findByRequestIdIn(ids)
+                .stream()
+                .collect(Collectors.groupingBy(ItemDtoInRequest::getRequestId));
+
+        return requests.stream()
+            .map(request -> {
+                ItemRequestDto dto = RequestMapper.toRequestDto(request);
+                dto.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+                return dto;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final long requesterId;
+        private final ItemRequestDto request;
+
+        Entry withItems(List<ItemDtoInRequest> items) {
+            return new Entry(requesterId, new ItemRequestDto(request.getId(), request.getDescription(),
+                request.getCreated(), items));
+        }
+
+        ItemRequestDto copy() {
+            List<ItemDtoInRequest> items = request.getItems()
+                .stream()
+                .map(item -> new ItemDtoInRequest(item.getId(), item.getName(), item.getDescription(),
+                    item.getAvailable(), item.getRequestId()))
+                .collect(Collectors.toList());
+
+            return new ItemRequestDto(request.getId(), request.getDescription(), request.getCreated(), items);
+        }
+    }
+}
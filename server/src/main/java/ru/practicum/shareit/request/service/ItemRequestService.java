@@ -1,10 +1,13 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.RequestNotFoundException;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.dto.ItemDtoInRequest;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.*;
@@ -25,7 +28,9 @@ public class ItemRequestService implements ItemRequestServiceInterface {
     private final ItemRequestRepository requestRepository;
     private final UserService userService;
     private final ItemService itemService;
-    public static final Sort SORT = Sort.by("created").descending();
+    private final ItemRequestFeed requestFeed;
+    private final ChangeLog changeLog;
+    public static final Sort SORT = Sort.by("created").descending().and(Sort.by("id").descending());
 
     @Transactional
     @Override
@@ -36,19 +41,26 @@ public class ItemRequestService implements ItemRequestServiceInterface {
         request.setRequester(user);
         request.setCreated(LocalDateTime.now());
         request = requestRepository.save(request);
+        requestFeed.addAfterCommit(request);
+        changeLog.record(ChangeType.REQUEST, request.getId());
 
         return toRequestDto(request);
     }
 
+    @EventListener
+    @Transactional(readOnly = true)
+    public void onRemoteChange(RemoteChange change) {
+        if (change.getType() == ChangeType.REQUEST) {
+            requestRepository.findById(change.getEntityId()).ifPresent(requestFeed::addAfterCommit);
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto findById(Long userId, Long requestId) {
         userService.getExistingUser(userId);
         ItemRequest request = getExistingRequest(requestId);
-        ItemRequestDto result = toRequestDto(request);
-        fillRequestsWithItems(result);
-
-        return result;
+        return mapListToDtoList(List.of(request)).get(0);
     }
 
     @Transactional(readOnly = true)
@@ -60,23 +72,51 @@ public class ItemRequestService implements ItemRequestServiceInterface {
         return mapListToDtoList(requests);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Collection<ItemRequestDto> findAll(Long userId, Integer from, Integer size) {
+        userService.getExistingUser(userId);
+        Pageable pageable = PageRequest.of(from / size, size, SORT);
+        List<ItemRequest> requests = requestRepository.findByRequesterId(userId, pageable);
+
+        return mapListToDtoList(requests);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Collection<ItemRequestDto> findAllFromOtherUsers(Long userId, Integer from, Integer size) {
         userService.getExistingUser(userId);
+        if (from / size == 0) {
+            return requestFeed.find(userId, Cursor.first(Sort.Direction.DESC), size);
+        }
+
         Pageable pageable = PageRequest.of(from / size, size, SORT);
         List<ItemRequest> requests = requestRepository.findByRequesterIdIsNot(userId, pageable);
 
         return mapListToDtoList(requests);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<ItemRequestDto> findAllFromOtherUsersAfterCursor(Long userId, String cursor, Integer size) {
+        userService.getExistingUser(userId);
+        List<ItemRequestDto> requests = requestFeed.find(userId, Cursor.decode(cursor, Sort.Direction.DESC, true),
+            size);
+
+        return CursorPage.of(requests, size, request -> new Cursor(request.getCreated(), request.getId()));
+    }
+
     private List<ItemRequestDto> mapListToDtoList(List<ItemRequest> requests) {
         List<ItemRequestDto> result = requests.stream()
             .map(RequestMapper::toRequestDto)
             .collect(Collectors.toList());
+        List<Long> requestIds = result.stream()
+            .map(ItemRequestDto::getId)
+            .collect(Collectors.toList());
+        Map<Long, List<ItemDtoInRequest>> items = itemService.getItemsByRequestIds(requestIds);
 
         for (ItemRequestDto request : result) {
-            fillRequestsWithItems(request);
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
         }
 
         return result;
@@ -87,14 +127,4 @@ public class ItemRequestService implements ItemRequestServiceInterface {
             () -> new RequestNotFoundException("Запрос с id " + id + " не найден.")
         );
     }
-
-    private void fillRequestsWithItems(ItemRequestDto request) {
-        List<ItemDtoInRequest> items = itemService.getItemsByRequestId(request.getId());
-
-        if (!items.isEmpty()) {
-            request.setItems(items);
-        } else {
-            request.setItems(new ArrayList<>());
-        }
-    }
 }
\ No newline at end of file
@@ -1,23 +1,51 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserServiceInterface;
 
-import java.util.Collection;
+import java.io.*;
+import java.util.*;
 
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserServiceInterface userServiceInterface;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public Collection<UserDto> findAll() {
         return userServiceInterface.findAll();
     }
 
+    @GetMapping(params = "size")
+    public ResponseEntity<List<UserDto>> findAll(@RequestParam(required = false) String cursor,
+        @RequestParam Integer size) {
+        return userServiceInterface.findAll(cursor, size).toResponseEntity();
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                userServiceInterface.forEach(user -> {
+                    try {
+                        writer.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public UserDto findById(@PathVariable Long id) {
         return userServiceInterface.findById(id);
@@ -37,4 +65,4 @@ public class UserController {
     public void delete(@PathVariable Long id) {
         userServiceInterface.delete(id);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.core.cache.BoundedCache;
+import ru.practicum.shareit.core.change.*;
+import ru.practicum.shareit.core.transaction.TransactionHooks;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.*;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+@Component
+public class UserCache {
+    private final BoundedCache<Long, Entry> cache;
+
+    @Autowired
+    public UserCache(MeterRegistry registry, @Value("${user-cache.max-size}") int maxSize,
+        @Value("${user-cache.ttl}") Duration ttl) {
+        this(registry, maxSize, ttl, Clock.systemUTC());
+    }
+
+    UserCache(MeterRegistry registry, int maxSize, Duration ttl, Clock clock) {
+        cache = new BoundedCache<>(registry, "user", maxSize, ttl, clock, Entry::missing);
+    }
+
+    public Optional<User> get(long id, LongFunction<Optional<User>> loader) {
+        Entry entry = cache.get(id, key -> loader.apply(key)
+            .map(user -> new Entry(user.getName(), user.getEmail()))
+            .orElseGet(() -> new Entry(null, null)));
+
+        return entry.missing() ? Optional.empty() : Optional.of(entry.toUser(id));
+    }
+
+    public void evictAfterCommit(long id) {
+        TransactionHooks.afterCommit(() -> cache.invalidate(id));
+    }
+
+    @EventListener
+    public void onRemoteChange(RemoteChange change) {
+        if (change.getType() == ChangeType.USER) {
+            cache.invalidate(change.getEntityId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        cache.invalidate(event.getUserId());
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final String name;
+        private final String email;
+
+        boolean missing() {
+            return email == null;
+        }
+
+        User toUser(long id) {
+            return new User(id, name, email);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.*;
+
+@Getter
+@RequiredArgsConstructor
+public class UserDeletedEvent {
+    private final Long userId;
+}
@@ -1,14 +1,21 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.dto.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.Collection;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static ru.practicum.shareit.user.dto.UserMapper.*;
@@ -17,6 +24,10 @@ import static ru.practicum.shareit.user.dto.UserMapper.*;
 @RequiredArgsConstructor
 public class UserService implements UserServiceInterface {
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
+    private final ChangeLog changeLog;
 
     @Transactional(readOnly = true)
     @Override
@@ -27,6 +38,26 @@ public class UserService implements UserServiceInterface {
             .collect(toList());
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPage<UserDto> findAll(String cursor, int size) {
+        long afterId = Cursor.decode(cursor, Sort.Direction.ASC, false).getId();
+        List<UserDto> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size))
+            .stream()
+            .map(UserMapper::toUserDto)
+            .collect(toList());
+
+        return CursorPage.of(users, size, user -> new Cursor(null, user.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<UserDto> action) {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(action);
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public UserDto findById(Long id) {
@@ -36,16 +67,22 @@ public class UserService implements UserServiceInterface {
     @Transactional
     @Override
     public UserDto save(UserDto dto) {
-        return toUserDto(userRepository.save(toUser(dto)));
+        User saved = userRepository.save(toUser(dto));
+        userCache.evictAfterCommit(saved.getId());
+        changeLog.record(ChangeType.USER, saved.getId());
+
+        return toUserDto(saved);
     }
 
     @Transactional
     @Override
     public UserDto update(UserDto dto, Long userId) {
-        User updated = getExistingUser(userId);
+        User updated = findUser(userId);
         updateName(updated, dto.getName());
         updateEmail(updated, dto.getEmail());
         userRepository.save(updated);
+        userCache.evictAfterCommit(userId);
+        changeLog.record(ChangeType.USER, userId);
 
         return toUserDto(updated);
     }
@@ -53,11 +90,22 @@ public class UserService implements UserServiceInterface {
     @Transactional
     @Override
     public void delete(Long id) {
-        getExistingUser(id);
+        findUser(id);
+        List<Long> itemIds = itemRepository.findIdsByOwnerOrBooker(id);
+        itemRepository.incrementBookingVersionByBooker(id);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id));
+        changeLog.record(ChangeType.USER_DELETED, id);
+        itemIds.forEach(itemId -> changeLog.record(ChangeType.ITEM, itemId));
     }
 
     public User getExistingUser(long id) {
+        return userCache.get(id, userRepository::findById).orElseThrow(
+            () -> new UserNotFoundException("Пользователь с id " + id + " не найден.")
+        );
+    }
+
+    private User findUser(long id) {
         return userRepository.findById(id).orElseThrow(
             () -> new UserNotFoundException("Пользователь с id " + id + " не найден.")
         );
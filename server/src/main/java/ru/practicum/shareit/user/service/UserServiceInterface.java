@@ -1,12 +1,18 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.core.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface UserServiceInterface {
     Collection<UserDto> findAll();
 
+    CursorPage<UserDto> findAll(String cursor, int size);
+
+    void forEach(Consumer<UserDto> action);
+
     UserDto findById(Long id);
 
     UserDto save(UserDto dto);
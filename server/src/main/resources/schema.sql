@@ -3,6 +3,8 @@ DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
 DROP TABLE IF EXISTS requests CASCADE;
+DROP TABLE IF EXISTS change_events CASCADE;
+DROP TABLE IF EXISTS change_log_head CASCADE;
 
 CREATE TABLE IF NOT EXISTS users (
 	user_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -19,6 +21,7 @@ CREATE TABLE IF NOT EXISTS items (
   is_available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
   request_id BIGINT,
+  booking_version BIGINT DEFAULT 0 NOT NULL,
   CONSTRAINT pk_item PRIMARY KEY (item_id)
 );
 
@@ -49,6 +52,23 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_commet PRIMARY KEY (comment_id)
 );
 
+CREATE TABLE IF NOT EXISTS change_events (
+  change_event_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  seq BIGINT NOT NULL,
+  instance_id VARCHAR(36) NOT NULL,
+  change_type VARCHAR(16) NOT NULL,
+  entity_id BIGINT NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE DEFAULT LOCALTIMESTAMP NOT NULL,
+  CONSTRAINT pk_change_event PRIMARY KEY (change_event_id),
+  CONSTRAINT uq_change_event_seq UNIQUE (seq)
+);
+
+CREATE TABLE IF NOT EXISTS change_log_head (
+  seq BIGINT NOT NULL
+);
+
+INSERT INTO change_log_head (seq) VALUES (0);
+
 ALTER TABLE items ADD CONSTRAINT fk_items_requests FOREIGN KEY (request_id) REFERENCES requests (request_id) ON DELETE CASCADE;
 
 ALTER TABLE items ADD CONSTRAINT fk_items_users FOREIGN KEY (owner_id) REFERENCES users (user_id) ON DELETE CASCADE;
@@ -61,4 +81,20 @@ ALTER TABLE requests ADD CONSTRAINT fk_requests_users FOREIGN KEY (requester_id)
 
 ALTER TABLE comments ADD CONSTRAINT fk_comments_items FOREIGN KEY (item_id) REFERENCES items (item_id) ON DELETE CASCADE;
 
-ALTER TABLE comments ADD CONSTRAINT fk_comments_users FOREIGN KEY (author_id) REFERENCES users (user_id) ON DELETE CASCADE;
\ No newline at end of file
+ALTER TABLE comments ADD CONSTRAINT fk_comments_users FOREIGN KEY (author_id) REFERENCES users (user_id) ON DELETE CASCADE;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, request_id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_change_events_created ON change_events (created);
\ No newline at end of file
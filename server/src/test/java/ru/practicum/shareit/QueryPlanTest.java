@@ -0,0 +1,188 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.*;
+import ru.practicum.shareit.booking.repository.*;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.item.storage.*;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.practicum.shareit.booking.model.Status.*;
+import static ru.practicum.shareit.booking.service.BookingIntervalIndex.ACTIVE_STATUSES;
+import static ru.practicum.shareit.booking.service.BookingService.SORT;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "ru.practicum.shareit.QueryPlanTest$RecordingStatementInspector")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class QueryPlanTest {
+    private static final Map<String, String> FOREIGN_KEYS = Map.of(
+        "fk_items_requests", "items",
+        "fk_items_users", "items",
+        "fk_bookings_items", "bookings",
+        "fk_bookings_users", "bookings",
+        "fk_requests_users", "requests",
+        "fk_comments_items", "comments",
+        "fk_comments_users", "comments");
+    private static final String TABLE_SCAN = "tableScan";
+    private static final int USERS = 50;
+    private static final int ITEMS_PER_USER = 10;
+    private static final int BOOKINGS_PER_ITEM = 10;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Pageable pageable = PageRequest.of(0, 10, SORT);
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Autowired
+    public QueryPlanTest(BookingRepository bookingRepository, ItemRepository itemRepository,
+                         CommentRepository commentRepository, ItemRequestRepository itemRequestRepository,
+                         JdbcTemplate jdbcTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeAll
+    void seed() {
+        // H2 indexes foreign keys implicitly and PostgreSQL does not, so only schema.sql indexes must remain
+        FOREIGN_KEYS.forEach((constraint, table) ->
+            jdbcTemplate.execute("alter table " + table + " drop constraint " + constraint));
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        long itemId = 0;
+        long bookingId = 0;
+
+        for (long userId = 1; userId <= USERS; userId++) {
+            users.add(new Object[]{userId, "user" + userId, "user" + userId + "@mail.ru"});
+            requests.add(new Object[]{userId, "request" + userId, userId, now.minusDays(userId)});
+
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                itemId++;
+                items.add(new Object[]{itemId, "item" + itemId, "description" + itemId, userId, userId});
+                comments.add(new Object[]{itemId, "comment" + itemId, itemId, userId, now.minusDays(i)});
+
+                for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                    bookingId++;
+                    long bookerId = (userId + j) % USERS + 1;
+                    bookings.add(new Object[]{bookingId, now.plusDays(j - 5), now.plusDays(j - 4), itemId, bookerId,
+                        APPROVED.name()});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate("insert into users (user_id, name, email) values (?, ?, ?)", users);
+        jdbcTemplate.batchUpdate("insert into requests (request_id, description, requester_id, created) "
+            + "values (?, ?, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("insert into items (item_id, name, description, is_available, owner_id, request_id) "
+            + "values (?, ?, ?, true, ?, ?)", items);
+        jdbcTemplate.batchUpdate("insert into bookings (booking_id, start_date, end_date, item_id, booker_id, status) "
+            + "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("insert into comments (comment_id, text, item_id, author_id, created) "
+            + "values (?, ?, ?, ?, ?)", comments);
+        jdbcTemplate.execute("analyze");
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void bookerQueries_whenExplained_thenIndexUsed() {
+        assertIndexUsed(() -> bookingRepository.findByBookerId(1L, pageable));
+        assertIndexUsed(() -> bookingRepository.findByBookerIdAndStatus(1L, WAITING, pageable));
+        assertIndexUsed(() -> bookingRepository.findByBookerIdAndEndIsBefore(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findByBookerIdAndStartIsAfter(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findByBookerIdCurrent(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findByBookerIdAfterCursor(1L,
+            BookingStateFilter.of("ALL", now), Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 10)));
+        assertIndexUsed(() -> bookingRepository.findCompactByBookerId(1L,
+            BookingStateFilter.of("ALL", now), Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void ownerQueries_whenExplained_thenIndexUsed() {
+        assertIndexUsed(() -> bookingRepository.findBookingsByItemOwner(1L, pageable));
+        assertIndexUsed(() -> bookingRepository.findBookingsByItemOwnerAndStatus(1L, WAITING, pageable));
+        assertIndexUsed(() -> bookingRepository.findBookingsByItemOwnerAndEndIsBefore(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findBookingsByItemOwnerAndStartIsAfter(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findBookingsByItemOwnerCurrent(1L, now, pageable));
+        assertIndexUsed(() -> bookingRepository.findByItemOwnerAfterCursor(1L,
+            BookingStateFilter.of("ALL", now), Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 10)));
+        assertIndexUsed(() -> bookingRepository.findByItemOwnerAfterCursorAscending(1L,
+            BookingStateFilter.of("CURRENT", now), Cursor.first(Sort.Direction.ASC), PageRequest.of(0, 10)));
+        assertIndexUsed(() -> bookingRepository.findCompactByItemOwner(1L,
+            BookingStateFilter.of("ALL", now), Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 10)));
+        assertIndexUsed(() -> bookingRepository.findCompactByItemOwnerAscending(1L,
+            BookingStateFilter.of("CURRENT", now), Cursor.first(Sort.Direction.ASC), PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void itemBookingQueries_whenExplained_thenIndexUsed() {
+        List<Long> itemIds = List.of(1L, 2L, 3L);
+
+        assertIndexUsed(() -> bookingRepository.findLastBookingsByItemIds(itemIds, now));
+        assertIndexUsed(() -> bookingRepository.findNextBookingsByItemIds(itemIds, now));
+        assertIndexUsed(() -> bookingRepository.findBookingsToAddComment(1L, 2L, now));
+        assertIndexUsed(() -> bookingRepository.findIntervalsByItemId(1L, ACTIVE_STATUSES, now));
+    }
+
+    @Test
+    void itemAndRequestQueries_whenExplained_thenIndexUsed() {
+        assertIndexUsed(() -> itemRepository.findByOwner(1L, PageRequest.of(0, 10)));
+        assertIndexUsed(() -> itemRepository.existsByOwner(1L));
+        assertIndexUsed(() -> itemRepository.findByRequestIdIn(List.of(1L, 2L, 3L)));
+        assertIndexUsed(() -> commentRepository.findLatestByItemIds(List.of(1L, 2L, 3L), 10));
+        assertIndexUsed(() -> commentRepository.findByItemIdAfterCursor(1L, Cursor.first(Sort.Direction.DESC),
+            PageRequest.of(0, 10)));
+        assertIndexUsed(() -> itemRequestRepository.findByRequesterId(1L,
+            PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created"))));
+        assertIndexUsed(() -> itemRequestRepository.findLatest(PageRequest.of(0, 10)));
+        assertIndexUsed(() -> itemRequestRepository.findByRequesterIdIsNotAfterCursor(1L,
+            new Cursor(now.minusDays(10), 10L), PageRequest.of(0, 10)));
+    }
+
+    private void assertIndexUsed(Runnable query) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+        assertFalse(RecordingStatementInspector.STATEMENTS.isEmpty());
+
+        for (String sql : RecordingStatementInspector.STATEMENTS) {
+            String plan = jdbcTemplate.execute((Connection connection) -> {
+                try (PreparedStatement statement = connection.prepareStatement("explain " + sql);
+                     ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            });
+
+            assertFalse(plan.contains(TABLE_SCAN), () -> "Full scan in plan:\n" + sql + "\n" + plan);
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
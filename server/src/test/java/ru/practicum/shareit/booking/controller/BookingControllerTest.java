@@ -10,6 +10,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.service.BookingServiceInterface;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -216,6 +217,81 @@ public class BookingControllerTest {
         verify(bookingServiceInterface, times(1)).findBookingsByItemOwnerId(anyLong(), anyString(), anyInt(), anyInt());
     }
 
+    @Test
+    public void findByUserIdAndState_whenCursorGiven_thenStatus200andNextCursorReturned() throws Exception {
+        CursorPage<BookingDto> page = new CursorPage<>(List.of(bookingDto), "next");
+        when(bookingServiceInterface.findByUserIdAndStateAfterCursor(anyLong(), anyString(), anyString(), anyInt()))
+            .thenReturn(page);
+
+        mockMvc.perform(
+                get("/bookings")
+                    .header("X-Sharer-User-Id", 1)
+                    .param("state", "ALL")
+                    .param("cursor", ""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(content().json(objectMapper.writeValueAsString(List.of(bookingDto))));
+
+        verify(bookingServiceInterface, times(1)).findByUserIdAndStateAfterCursor(1L, "ALL", "", 10);
+        verify(bookingServiceInterface, never()).findByUserIdAndState(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void findBookingsByItemOwnerId_whenLastPage_thenNoNextCursorReturned() throws Exception {
+        CursorPage<BookingDto> page = new CursorPage<>(List.of(bookingDto), null);
+        when(bookingServiceInterface.findBookingsByItemOwnerIdAfterCursor(anyLong(), anyString(), anyString(), anyInt()))
+            .thenReturn(page);
+
+        mockMvc.perform(
+                get("/bookings/owner")
+                    .header("X-Sharer-User-Id", 1)
+                    .param("cursor", "abc")
+                    .param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(Cursor.NEXT_CURSOR_HEADER))
+            .andExpect(content().json(objectMapper.writeValueAsString(List.of(bookingDto))));
+
+        verify(bookingServiceInterface, times(1)).findBookingsByItemOwnerIdAfterCursor(1L, "ALL", "abc", 5);
+    }
+
+    @Test
+    public void findByUserIdAndState_whenCompactView_thenCompactBookingsReturned() throws Exception {
+        CompactBookingDto compact = new CompactBookingDto(1L, bookingDto.getStart(), bookingDto.getEnd(),
+            bookingDto.getStatus(), item.getId(), item.getName(), booker.getId());
+        when(bookingServiceInterface.findCompactByUserIdAndState(anyLong(), anyString(), any(), anyInt(), anyInt()))
+            .thenReturn(new CursorPage<>(List.of(compact), null));
+
+        mockMvc.perform(
+                get("/bookings")
+                    .header("X-Sharer-User-Id", 1)
+                    .param("view", "compact"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].itemName", is(item.getName())))
+            .andExpect(jsonPath("$[0].item").doesNotExist())
+            .andExpect(header().doesNotExist(Cursor.NEXT_CURSOR_HEADER));
+
+        verify(bookingServiceInterface, times(1)).findCompactByUserIdAndState(1L, "ALL", null, 0, 10);
+        verify(bookingServiceInterface, never()).findByUserIdAndState(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void findBookingsByItemOwnerId_whenCompactViewWithCursor_thenCompactPageReturned() throws Exception {
+        when(bookingServiceInterface.findCompactBookingsByItemOwnerId(anyLong(), anyString(), any(), anyInt(),
+            anyInt())).thenReturn(new CursorPage<>(List.of(), "next"));
+
+        mockMvc.perform(
+                get("/bookings/owner")
+                    .header("X-Sharer-User-Id", 1)
+                    .param("view", "compact")
+                    .param("cursor", ""))
+            .andExpect(status().isOk())
+            .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"));
+
+        verify(bookingServiceInterface, times(1)).findCompactBookingsByItemOwnerId(1L, "ALL", "", 0, 10);
+        verify(bookingServiceInterface, never()).findBookingsByItemOwnerIdAfterCursor(anyLong(), anyString(),
+            anyString(), anyInt());
+    }
+
     @Test
     public void updateBooking_thenStatus200andUpdatedReturns() throws Exception {
         when(bookingServiceInterface.approve(anyLong(), anyLong(), anyBoolean())).thenReturn(bookingDto);
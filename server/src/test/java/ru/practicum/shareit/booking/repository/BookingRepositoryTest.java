@@ -1,25 +1,52 @@
 package ru.practicum.shareit.booking.repository;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.*;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.*;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.*;
 import org.springframework.test.annotation.DirtiesContext;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.core.change.ChangeLog;
+import ru.practicum.shareit.booking.dto.*;
+import ru.practicum.shareit.booking.model.*;
+import ru.practicum.shareit.booking.service.*;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.*;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static ru.practicum.shareit.booking.model.Status.*;
 import static ru.practicum.shareit.booking.service.BookingService.SORT;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({BookingService.class, BookingIntervalIndex.class})
 public class BookingRepositoryTest {
     private BookingRepository bookingRepository;
     private TestEntityManager entityManager;
+    private BookingService bookingService;
+    @MockBean
+    private ItemService itemService;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private StartAndEndValidator startAndEndValidator;
+    @MockBean
+    private ItemSearchCache itemSearchCache;
+    @MockBean
+    private ChangeLog changeLog;
     private Booking bookingWithStatusIsCurrent;
     private Booking bookingWithStartAfterAndItemId;
     private Booking bookingWithEndBeforeAndItemId;
@@ -28,9 +55,11 @@ public class BookingRepositoryTest {
     public static Pageable pageable = PageRequest.of(0, 10, SORT);
 
     @Autowired
-    public BookingRepositoryTest(BookingRepository bookingRepository, TestEntityManager entityManager) {
+    public BookingRepositoryTest(BookingRepository bookingRepository, TestEntityManager entityManager,
+        BookingService bookingService) {
         this.bookingRepository = bookingRepository;
         this.entityManager = entityManager;
+        this.bookingService = bookingService;
     }
 
     @BeforeEach
@@ -48,24 +77,24 @@ public class BookingRepositoryTest {
             .build();
 
         bookingWithStatusIsCurrent = Booking.builder()
-            .start(LocalDateTime.of(2022, 11, 11, 11, 11))
-            .end(LocalDateTime.of(2024, 11, 11, 11, 11))
+            .start(LocalDateTime.now().minusYears(1).withNano(0))
+            .end(LocalDateTime.now().plusYears(1).withNano(0))
             .item(item)
             .booker(booker)
             .status(WAITING)
             .build();
 
         bookingWithStartAfterAndItemId = Booking.builder()
-            .start(LocalDateTime.of(2025, 11, 11, 11, 11))
-            .end(LocalDateTime.of(2026, 11, 11, 11, 11))
+            .start(LocalDateTime.now().plusYears(1).withNano(0))
+            .end(LocalDateTime.now().plusYears(2).withNano(0))
             .item(item)
             .booker(booker)
             .status(WAITING)
             .build();
 
         bookingWithEndBeforeAndItemId = Booking.builder()
-            .start(LocalDateTime.of(2021, 11, 11, 11, 11))
-            .end(LocalDateTime.of(2022, 11, 11, 11, 11))
+            .start(LocalDateTime.now().minusYears(3).withNano(0))
+            .end(LocalDateTime.now().minusYears(2).withNano(0))
             .item(item)
             .booker(booker)
             .status(APPROVED)
@@ -90,34 +119,110 @@ public class BookingRepositoryTest {
 
     @Test
     @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
-    void findBookingByItemIdAndStartBefore() {
+    void findLastBookingsByItemIds() {
         this.entityManager.persist(booker);
         this.entityManager.persist(item);
         this.entityManager.persist(bookingWithEndBeforeAndItemId);
-        List<Booking> actual = bookingRepository.findBookingByItemIdAndStartBefore(item.getId(), LocalDateTime.now());
+        this.entityManager.persist(bookingWithStatusIsCurrent);
+        List<ShortBookingDto> actual = bookingRepository.findLastBookingsByItemIds(List.of(item.getId()), LocalDateTime.now());
 
         assertEquals(1, actual.size());
-        assertEquals(bookingWithEndBeforeAndItemId.getStart(), actual.get(0).getStart());
-        assertEquals(bookingWithEndBeforeAndItemId.getEnd(), actual.get(0).getEnd());
-        assertEquals(bookingWithEndBeforeAndItemId.getBooker(), actual.get(0).getBooker());
-        assertEquals(bookingWithEndBeforeAndItemId.getItem(), actual.get(0).getItem());
-        assertEquals(bookingWithEndBeforeAndItemId.getStatus(), actual.get(0).getStatus());
+        assertEquals(bookingWithStatusIsCurrent.getId(), actual.get(0).getId());
+        assertEquals(bookingWithStatusIsCurrent.getStart(), actual.get(0).getStart());
+        assertEquals(bookingWithStatusIsCurrent.getEnd(), actual.get(0).getEnd());
+        assertEquals(item.getId(), actual.get(0).getItemId());
+        assertEquals(booker.getId(), actual.get(0).getBookerId());
     }
 
     @Test
     @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
-    void findBookingByItemIdAndStartAfter() {
+    void findIntervalsByItemId_whenActiveBookingNotEnded_thenIntervalReturned() {
+        this.entityManager.persist(booker);
+        this.entityManager.persist(item);
+        this.entityManager.persist(bookingWithStartAfterAndItemId);
+        this.entityManager.persist(bookingWithEndBeforeAndItemId);
+        LocalDateTime now = LocalDateTime.now();
+        Set<Status> active = EnumSet.of(WAITING, APPROVED);
+
+        List<ShortBookingDto> intervals = bookingRepository.findIntervalsByItemId(item.getId(), active, now);
+
+        assertEquals(1, intervals.size());
+        assertEquals(bookingWithStartAfterAndItemId.getId(), intervals.get(0).getId());
+        assertEquals(bookingWithStartAfterAndItemId.getEnd(), intervals.get(0).getEnd());
+        assertTrue(bookingRepository.findIntervalsByItemId(item.getId(), EnumSet.of(REJECTED), now).isEmpty());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findNextBookingsByItemIds() {
+        Booking laterBooking = Booking.builder()
+            .start(bookingWithStartAfterAndItemId.getEnd())
+            .end(bookingWithStartAfterAndItemId.getEnd().plusDays(1))
+            .item(item)
+            .booker(booker)
+            .status(WAITING)
+            .build();
+
         this.entityManager.persist(booker);
         this.entityManager.persist(item);
+        this.entityManager.persist(laterBooking);
         this.entityManager.persist(bookingWithStartAfterAndItemId);
-        List<Booking> actual = bookingRepository.findBookingByItemIdAndStartAfter(item.getId(), LocalDateTime.now());
+        List<ShortBookingDto> actual = bookingRepository.findNextBookingsByItemIds(List.of(item.getId()), LocalDateTime.now());
 
         assertEquals(1, actual.size());
+        assertEquals(bookingWithStartAfterAndItemId.getId(), actual.get(0).getId());
         assertEquals(bookingWithStartAfterAndItemId.getStart(), actual.get(0).getStart());
         assertEquals(bookingWithStartAfterAndItemId.getEnd(), actual.get(0).getEnd());
-        assertEquals(bookingWithStartAfterAndItemId.getBooker(), actual.get(0).getBooker());
-        assertEquals(bookingWithStartAfterAndItemId.getItem(), actual.get(0).getItem());
-        assertEquals(bookingWithStartAfterAndItemId.getStatus(), actual.get(0).getStatus());
+        assertEquals(item.getId(), actual.get(0).getItemId());
+        assertEquals(booker.getId(), actual.get(0).getBookerId());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void fillItemsWithBookings_whenPageOfItems_thenTwoStatementsExecuted() {
+        this.entityManager.persist(booker);
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Item pageItem = Item.builder()
+                .name("tool " + i)
+                .description("cool tool")
+                .available(true)
+                .owner(1L)
+                .build();
+            this.entityManager.persist(pageItem);
+            for (int j = 1; j <= 3; j++) {
+                this.entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(j * 2))
+                    .end(LocalDateTime.now().minusDays(j * 2 - 1))
+                    .item(pageItem)
+                    .booker(booker)
+                    .status(APPROVED)
+                    .build());
+                this.entityManager.persist(Booking.builder()
+                    .start(LocalDateTime.now().plusDays(j * 2))
+                    .end(LocalDateTime.now().plusDays(j * 2 + 1))
+                    .item(pageItem)
+                    .booker(booker)
+                    .status(WAITING)
+                    .build());
+            }
+            items.add(ItemMapper.toItemDto(pageItem));
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        Statistics statistics = getStatistics();
+        bookingService.fillItemsWithBookings(items);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        for (ItemDto actual : items) {
+            assertNotNull(actual.getLastBooking());
+            assertNotNull(actual.getNextBooking());
+            assertEquals(actual.getId(), actual.getLastBooking().getItemId());
+            assertEquals(actual.getId(), actual.getNextBooking().getItemId());
+            assertTrue(actual.getLastBooking().getStart().isAfter(LocalDateTime.now().minusDays(3)));
+            assertTrue(actual.getNextBooking().getStart().isBefore(LocalDateTime.now().plusDays(3)));
+        }
     }
 
     @Test
@@ -136,6 +241,58 @@ public class BookingRepositoryTest {
         assertEquals(bookingWithStatusIsCurrent.getStatus(), actual.get(0).getStatus());
     }
 
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findByBookerIdAfterCursor_whenPagedThrough_thenEveryBookingReturnedOnce() {
+        this.entityManager.persist(booker);
+        this.entityManager.persist(item);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Booking booking = Booking.builder()
+                .start(start.plusDays(i / 2))
+                .end(start.plusDays(i / 2 + 1))
+                .item(item)
+                .booker(booker)
+                .status(WAITING)
+                .build();
+            this.entityManager.persist(booking);
+            expected.add(booking.getId());
+        }
+        expected.sort(Comparator.comparing((Long id) -> this.entityManager.find(Booking.class, id).getStart())
+            .thenComparing(Comparator.naturalOrder())
+            .reversed());
+
+        BookingStateFilter filter = BookingStateFilter.of("FUTURE", LocalDateTime.now());
+        List<Long> actual = new ArrayList<>();
+        Cursor cursor = Cursor.first(Sort.Direction.DESC);
+        List<Booking> page;
+        do {
+            page = bookingRepository.findByBookerIdAfterCursor(booker.getId(), filter, cursor, PageRequest.of(0, 3));
+            page.forEach(booking -> actual.add(booking.getId()));
+            if (!page.isEmpty()) {
+                Booking last = page.get(page.size() - 1);
+                cursor = new Cursor(last.getStart(), last.getId());
+            }
+        } while (page.size() == 3);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findByItemOwnerAfterCursor_whenStatusFilter_thenOnlyMatchingReturned() {
+        this.entityManager.persist(booker);
+        this.entityManager.persist(item);
+        this.entityManager.persist(bookingWithStartAfterAndItemId);
+        this.entityManager.persist(bookingWithEndBeforeAndItemId);
+        List<Booking> actual = bookingRepository.findByItemOwnerAfterCursor(1L,
+            BookingStateFilter.of("WAITING", LocalDateTime.now()), Cursor.first(Sort.Direction.DESC), pageable);
+
+        assertEquals(1, actual.size());
+        assertEquals(bookingWithStartAfterAndItemId.getId(), actual.get(0).getId());
+    }
+
     @Test
     @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
     void findBookingsToAddComment() {
@@ -151,4 +308,121 @@ public class BookingRepositoryTest {
         assertEquals(bookingWithEndBeforeAndItemId.getItem(), actual.get(0).getItem());
         assertEquals(bookingWithEndBeforeAndItemId.getStatus(), actual.get(0).getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findByBookerId_whenPageSerialized_thenOneStatementExecuted() throws Exception {
+        persistBookingsForRequestedItem();
+        Statistics statistics = getStatistics();
+
+        List<Booking> actual = bookingRepository.findByBookerId(booker.getId(), pageable);
+        String json = serialize(actual);
+
+        assertEquals(3, actual.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(json.contains("requester@mail.ru"));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findBookingsByItemOwner_whenPageSerialized_thenOneStatementExecuted() throws Exception {
+        persistBookingsForRequestedItem();
+        Statistics statistics = getStatistics();
+
+        List<Booking> actual = bookingRepository.findBookingsByItemOwner(item.getOwner(), pageable);
+        serialize(actual);
+
+        assertEquals(3, actual.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findById_whenBookingSerialized_thenOneStatementExecuted() throws Exception {
+        persistBookingsForRequestedItem();
+        Long bookingId = bookingRepository.findAll().get(0).getId();
+        this.entityManager.clear();
+        Statistics statistics = getStatistics();
+
+        Optional<Booking> actual = bookingRepository.findById(bookingId);
+        serialize(List.of(actual.orElseThrow()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findBookingsToAddComment_whenInvoked_thenAssociationsNotLoaded() {
+        persistBookingsForRequestedItem();
+        Statistics statistics = getStatistics();
+
+        List<Booking> actual = bookingRepository.findBookingsToAddComment(item.getId(), booker.getId(),
+            LocalDateTime.now().plusYears(1));
+
+        assertEquals(3, actual.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(Hibernate.isInitialized(actual.get(0).getItem()));
+        assertFalse(Hibernate.isInitialized(actual.get(0).getBooker()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void findCompactByItemOwner_whenInvoked_thenOnlyCardColumnsSelected() {
+        persistBookingsForRequestedItem();
+        Statistics statistics = getStatistics();
+
+        List<CompactBookingDto> actual = bookingRepository.findCompactByItemOwner(item.getOwner(),
+            BookingStateFilter.of("PAST", LocalDateTime.now()), Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 2));
+
+        assertEquals(2, actual.size());
+        assertEquals(item.getName(), actual.get(0).getItemName());
+        assertEquals(booker.getId(), actual.get(0).getBookerId());
+        assertTrue(actual.get(0).getStart().isAfter(actual.get(1).getStart()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void persistBookingsForRequestedItem() {
+        User requester = User.builder()
+            .name("requester")
+            .email("requester@mail.ru")
+            .build();
+        ItemRequest request = ItemRequest.builder()
+            .description("need a tool")
+            .requester(requester)
+            .created(LocalDateTime.now())
+            .build();
+        this.entityManager.persist(requester);
+        this.entityManager.persist(request);
+        this.entityManager.persist(booker);
+        item.setOwner(requester.getId());
+        item.setRequest(request);
+        this.entityManager.persist(item);
+
+        for (int i = 1; i <= 3; i++) {
+            this.entityManager.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(i * 2))
+                .end(LocalDateTime.now().minusDays(i * 2 - 1))
+                .item(item)
+                .booker(booker)
+                .status(APPROVED)
+                .build());
+        }
+        this.entityManager.flush();
+        this.entityManager.clear();
+    }
+
+    private Statistics getStatistics() {
+        Statistics statistics = this.entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+
+    private String serialize(List<Booking> bookings) throws JsonProcessingException {
+        return new ObjectMapper().findAndRegisterModules()
+            .writeValueAsString(bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.ShortBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.core.exception.exceptions.BookingBadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static ru.practicum.shareit.booking.model.Status.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private BookingIntervalIndex index;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong version = new AtomicLong();
+    private LocalDateTime now;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    public void init() {
+        now = LocalDateTime.now();
+        item = new Item(1L, "tool", "cool tool", true, 1L, null);
+        booker = new User(2L, "test", "test@mail.ru");
+        when(itemRepository.findBookingVersionLocked(1L)).thenAnswer(invocation -> version.get());
+        lenient().doAnswer(invocation -> version.incrementAndGet()).when(itemRepository).incrementBookingVersion(1L);
+    }
+
+    @Test
+    void reserve_whenIntervalFree_thenBookingSavedAndItemLoadedOnce() {
+        reserve(now.plusDays(1), now.plusDays(2));
+        Booking actual = reserve(now.plusDays(2), now.plusDays(3));
+
+        assertNotNull(actual.getId());
+        assertEquals(2, version.get());
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void reserve_whenIntervalOverlaps_thenExceptionReturned() {
+        reserve(now.plusDays(1), now.plusDays(3));
+
+        assertThrows(BookingBadRequestException.class, () -> reserve(now.plusDays(2), now.plusDays(4)));
+        assertThrows(BookingBadRequestException.class, () -> reserve(now, now.plusDays(5)));
+        assertThrows(BookingBadRequestException.class, () -> reserve(now.plusHours(30), now.plusHours(40)));
+    }
+
+    @Test
+    void reserve_whenLongBookingStartsEarlier_thenExceptionReturned() {
+        reserve(now.plusDays(1), now.plusDays(30));
+        reserve(now.plusDays(31), now.plusDays(32));
+
+        assertThrows(BookingBadRequestException.class, () -> reserve(now.plusDays(10), now.plusDays(11)));
+    }
+
+    @Test
+    void reserve_whenOverlapsStoredBooking_thenExceptionReturned() {
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyCollection(), any()))
+            .thenReturn(List.of(new ShortBookingDto(10L, now.plusDays(1), now.plusDays(3), 1L, 3L)));
+
+        assertThrows(BookingBadRequestException.class, () -> reserve(now.plusDays(2), now.plusDays(4)));
+    }
+
+    @Test
+    void reserve_whenAnotherInstanceChangedItem_thenItemReloaded() {
+        reserve(now.plusDays(1), now.plusDays(2));
+        version.incrementAndGet();
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyCollection(), any()))
+            .thenReturn(List.of(new ShortBookingDto(10L, now.plusDays(3), now.plusDays(5), 1L, 3L)));
+
+        assertThrows(BookingBadRequestException.class, () -> reserve(now.plusDays(4), now.plusDays(6)));
+        verify(bookingRepository, times(2)).findIntervalsByItemId(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void reserve_whenSameBookingApprovedAgain_thenBookingSaved() {
+        Booking booking = reserve(now.plusDays(1), now.plusDays(3));
+        booking.setStatus(APPROVED);
+
+        assertEquals(booking, index.reserve(booking, () -> booking));
+    }
+
+    @Test
+    void release_whenBookingRejected_thenIntervalFreeWithoutReload() {
+        Booking booking = reserve(now.plusDays(1), now.plusDays(3));
+        index.release(booking);
+
+        assertNotNull(reserve(now.plusDays(2), now.plusDays(4)));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void onUserDeleted_whenOwnerDeleted_thenItemIntervalsDropped() {
+        reserve(now.plusDays(1), now.plusDays(3));
+        index.onUserDeleted(new UserDeletedEvent(1L));
+
+        assertNotNull(reserve(now.plusDays(2), now.plusDays(4)));
+        verify(bookingRepository, times(2)).findIntervalsByItemId(eq(1L), anyCollection(), any());
+    }
+
+    private Booking reserve(LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking(null, start, end, item, booker, WAITING);
+        return index.reserve(booking, () -> {
+            booking.setId(ids.incrementAndGet());
+            return booking;
+        });
+    }
+}
@@ -7,17 +7,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.booking.dto.*;
 import ru.practicum.shareit.booking.model.*;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.*;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.*;
 import ru.practicum.shareit.user.dto.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +39,12 @@ public class BookingServiceTest {
     private BookingRepository bookingRepository;
     @Mock
     private StartAndEndValidator startAndEndValidator;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private ChangeLog changeLog;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
     @InjectMocks
     private BookingService bookingService;
     private long bookingId;
@@ -108,11 +117,14 @@ public class BookingServiceTest {
             notOwner,
             REJECTED
         );
+
+        lenient().when(bookingIntervalIndex.reserve(any(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<Booking>>getArgument(1).get());
     }
 
     @Test
     void saveBooking_whenNotOwnerRequests_thenBookingReturned() {
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto actual = bookingService.save(2L, BookingMapper.toShortBookingDto(booking));
@@ -126,7 +138,7 @@ public class BookingServiceTest {
 
     @Test
     void saveBooking_whenOwnerRequests_thenExceptionReturned() {
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
 
         assertThrows(BookingNotFoundException.class,
             () -> bookingService.save(1L, BookingMapper.toShortBookingDto(booking)));
@@ -135,7 +147,7 @@ public class BookingServiceTest {
     @Test
     void saveBooking_whenAvailableIsFalse_thenExceptionReturned() {
         item.setAvailable(false);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
 
         assertThrows(BookingBadRequestException.class,
             () -> bookingService.save(2L, BookingMapper.toShortBookingDto(booking)));
@@ -143,7 +155,7 @@ public class BookingServiceTest {
 
     @Test
     void saveBooking_whenUserNotExists_thenExceptionReturned() {
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
 
         assertThrows(BookingNotFoundException.class,
             () -> bookingService.save(1L, BookingMapper.toShortBookingDto(booking)));
@@ -151,7 +163,7 @@ public class BookingServiceTest {
 
     @Test
     void approveBooking_whenOwnerRequests_thenItemReturned() {
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(booking);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
@@ -165,7 +177,7 @@ public class BookingServiceTest {
 
     @Test
     void approveBooking_whenNotOwnerRequests_thenExceptionReturned() {
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(booking);
         when(bookingRepository.findById(bookingId)).thenThrow(BookingNotFoundException.class);
 
@@ -187,7 +199,7 @@ public class BookingServiceTest {
             APPROVED
         );
 
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusAlreadyApproved);
         when(bookingRepository.findById(bookingId)).thenThrow(BookingBadRequestException.class);
 
@@ -197,6 +209,38 @@ public class BookingServiceTest {
         assertThrows(BookingBadRequestException.class, () -> bookingService.approve(notOwner.getId(), bookingId, true));
     }
 
+    @Test
+    void saveBooking_whenIntervalOverlaps_thenExceptionReturnedAndNothingSaved() {
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
+        doThrow(BookingBadRequestException.class).when(bookingIntervalIndex).reserve(any(), any());
+
+        assertThrows(BookingBadRequestException.class,
+            () -> bookingService.save(2L, BookingMapper.toShortBookingDto(booking)));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void approveBooking_whenApproved_thenIntervalReserved() {
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        bookingService.approve(user.getId(), bookingId, true);
+
+        verify(bookingIntervalIndex).reserve(eq(booking), any());
+        verify(bookingIntervalIndex, never()).release(any());
+    }
+
+    @Test
+    void approveBooking_whenWaitingRejected_thenIntervalReleased() {
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenReturn(booking);
+
+        bookingService.approve(user.getId(), bookingId, false);
+
+        verify(bookingIntervalIndex, never()).reserve(any(), any());
+        verify(bookingIntervalIndex).release(booking);
+    }
+
     @Test
     void findBookingById_whenExists_thenBookingReturned() {
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
@@ -340,7 +384,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenCurrentFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(bookingWithStatusIsCurrent);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusIsCurrent);
         when(bookingRepository.findBookingsByItemOwnerCurrent(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
             .thenReturn(bookings);
@@ -358,7 +402,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenWaitingFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(booking);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(booking);
         when(bookingRepository.findBookingsByItemOwnerAndStatus(anyLong(), any(Status.class), any(Pageable.class)))
             .thenReturn(bookings);
@@ -376,7 +420,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenRejectedFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(bookingWithStatusIsRejected);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusIsRejected);
         when(bookingRepository.findBookingsByItemOwnerAndStatus(anyLong(), any(Status.class), any(Pageable.class)))
             .thenReturn(bookings);
@@ -394,7 +438,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenFutureFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(bookingWithStatusIsFuture);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusIsFuture);
         when(bookingRepository.findBookingsByItemOwnerAndStartIsAfter(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
             .thenReturn(bookings);
@@ -412,7 +456,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenPastFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(bookingWithStatusIsPast);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusIsPast);
         when(bookingRepository.findBookingsByItemOwnerAndEndIsBefore(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
             .thenReturn(bookings);
@@ -430,7 +474,7 @@ public class BookingServiceTest {
     @Test
     void findBookingsByItemOwnerId_whenAllFound_thenBookingListReturned() {
         List<Booking> bookings = List.of(bookingWithStatusIsPast);
-        when(itemService.getExistingItem(item.getId())).thenReturn(item);
+        when(itemService.getExistingItemWithRequest(item.getId())).thenReturn(item);
         when(bookingRepository.save(any())).thenReturn(bookingWithStatusIsPast);
         when(bookingRepository.findBookingsByItemOwner(anyLong(), any(Pageable.class))).thenReturn(bookings);
 
@@ -443,4 +487,131 @@ public class BookingServiceTest {
         assertEquals(bookings, actualBookings);
         assertEquals(1, actualBookings.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findByUserIdAndStateAfterCursor_whenPageFull_thenNextCursorReturned() {
+        when(bookingRepository.findByBookerIdAfterCursor(anyLong(), any(BookingStateFilter.class), any(Cursor.class),
+            any(Pageable.class))).thenReturn(List.of(bookingWithStatusIsFuture, bookingWithStatusIsRejected));
+
+        CursorPage<BookingDto> actual = bookingService.findByUserIdAndStateAfterCursor(notOwner.getId(), "ALL", "", 2);
+
+        assertEquals(2, actual.getContent().size());
+        assertEquals(new Cursor(bookingWithStatusIsRejected.getStart(), bookingWithStatusIsRejected.getId()),
+            Cursor.decode(actual.getNextCursor(), Sort.Direction.DESC, true));
+        verify(bookingRepository).findByBookerIdAfterCursor(eq(notOwner.getId()), any(BookingStateFilter.class),
+            eq(Cursor.first(Sort.Direction.DESC)), eq(PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void findByUserIdAndStateAfterCursor_whenLastPage_thenNoNextCursorReturned() {
+        Cursor cursor = new Cursor(booking.getStart(), booking.getId());
+        when(bookingRepository.findByBookerIdAfterCursor(anyLong(), any(BookingStateFilter.class), any(Cursor.class),
+            any(Pageable.class))).thenReturn(List.of(bookingWithStatusIsPast));
+
+        CursorPage<BookingDto> actual = bookingService.findByUserIdAndStateAfterCursor(notOwner.getId(), "PAST",
+            cursor.encode(), 10);
+
+        assertEquals(1, actual.getContent().size());
+        assertNull(actual.getNextCursor());
+        verify(bookingRepository).findByBookerIdAfterCursor(eq(notOwner.getId()), any(BookingStateFilter.class),
+            eq(cursor), any(Pageable.class));
+    }
+
+    @Test
+    void findByUserIdAndStateAfterCursor_whenCursorMalformed_thenExceptionReturned() {
+        assertThrows(CursorBadRequestException.class,
+            () -> bookingService.findByUserIdAndStateAfterCursor(notOwner.getId(), "ALL", "not a cursor", 10));
+    }
+
+    @Test
+    void findByUserIdAndStateAfterCursor_whenCursorHasNoTimestamp_thenExceptionReturned() {
+        String cursor = new Cursor(null, 5L).encode();
+
+        assertThrows(CursorBadRequestException.class,
+            () -> bookingService.findByUserIdAndStateAfterCursor(notOwner.getId(), "ALL", cursor, 10));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void findByUserIdAndStateAfterCursor_whenSizeNotPositive_thenExceptionReturned() {
+        assertThrows(BookingBadRequestException.class,
+            () -> bookingService.findByUserIdAndStateAfterCursor(notOwner.getId(), "ALL", "", 0));
+        assertThrows(BookingBadRequestException.class,
+            () -> bookingService.findBookingsByItemOwnerIdAfterCursor(user.getId(), "ALL", "", -1));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void findByUserIdAndState_whenFromNegative_thenExceptionReturned() {
+        assertThrows(BookingBadRequestException.class,
+            () -> bookingService.findByUserIdAndState(notOwner.getId(), "ALL", -1, 10));
+        assertThrows(BookingBadRequestException.class,
+            () -> bookingService.findCompactByUserIdAndState(notOwner.getId(), "ALL", null, 0, 0));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void findBookingsByItemOwnerIdAfterCursor_whenCurrent_thenAscendingQueryUsed() {
+        when(bookingRepository.findByItemOwnerAfterCursorAscending(anyLong(), any(BookingStateFilter.class),
+            any(Cursor.class), any(Pageable.class))).thenReturn(List.of(bookingWithStatusIsCurrent));
+
+        CursorPage<BookingDto> actual = bookingService.findBookingsByItemOwnerIdAfterCursor(user.getId(), "CURRENT",
+            "", 10);
+
+        assertEquals(1, actual.getContent().size());
+        verify(bookingRepository).findByItemOwnerAfterCursorAscending(eq(user.getId()), any(BookingStateFilter.class),
+            eq(Cursor.first(Sort.Direction.ASC)), any(Pageable.class));
+    }
+
+    @Test
+    void findBookingsByItemOwnerIdAfterCursor_whenStatusIsUnsupported_thenExceptionReturned() {
+        assertThrows(UnsupportedStatusException.class,
+            () -> bookingService.findBookingsByItemOwnerIdAfterCursor(user.getId(), "UNSUPPORTED", "", 10));
+    }
+
+    @Test
+    void findCompactByUserIdAndState_whenOffsetMode_thenPageRequestUsedAndNoCursorReturned() {
+        CompactBookingDto compact = new CompactBookingDto(1L, booking.getStart(), booking.getEnd(), WAITING,
+            item.getId(), item.getName(), notOwner.getId());
+        when(bookingRepository.findCompactByBookerId(anyLong(), any(BookingStateFilter.class), any(Cursor.class),
+            any(Pageable.class))).thenReturn(List.of(compact));
+
+        CursorPage<CompactBookingDto> actual = bookingService.findCompactByUserIdAndState(notOwner.getId(), "ALL",
+            null, 20, 10);
+
+        assertEquals(List.of(compact), actual.getContent());
+        assertNull(actual.getNextCursor());
+        verify(bookingRepository).findCompactByBookerId(eq(notOwner.getId()), any(BookingStateFilter.class),
+            eq(Cursor.first(Sort.Direction.DESC)), eq(PageRequest.of(2, 10)));
+    }
+
+    @Test
+    void findCompactByUserIdAndState_whenCursorModeAndPageFull_thenNextCursorReturned() {
+        CompactBookingDto compact = new CompactBookingDto(1L, booking.getStart(), booking.getEnd(), WAITING,
+            item.getId(), item.getName(), notOwner.getId());
+        when(bookingRepository.findCompactByBookerId(anyLong(), any(BookingStateFilter.class), any(Cursor.class),
+            any(Pageable.class))).thenReturn(List.of(compact));
+
+        CursorPage<CompactBookingDto> actual = bookingService.findCompactByUserIdAndState(notOwner.getId(), "ALL",
+            "", 0, 1);
+
+        assertEquals(new Cursor(compact.getStart(), compact.getId()),
+            Cursor.decode(actual.getNextCursor(), Sort.Direction.DESC, true));
+        verify(bookingRepository).findCompactByBookerId(eq(notOwner.getId()), any(BookingStateFilter.class),
+            eq(Cursor.first(Sort.Direction.DESC)), eq(PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void findCompactBookingsByItemOwnerId_whenCurrent_thenAscendingQueryUsed() {
+        when(bookingRepository.findCompactByItemOwnerAscending(anyLong(), any(BookingStateFilter.class),
+            any(Cursor.class), any(Pageable.class))).thenReturn(List.of());
+
+        CursorPage<CompactBookingDto> actual = bookingService.findCompactBookingsByItemOwnerId(user.getId(), "CURRENT",
+            null, 0, 10);
+
+        assertTrue(actual.getContent().isEmpty());
+        verify(bookingRepository).findCompactByItemOwnerAscending(eq(user.getId()), any(BookingStateFilter.class),
+            eq(Cursor.first(Sort.Direction.ASC)), any(Pageable.class));
+        verify(bookingRepository, never()).findCompactByItemOwner(anyLong(), any(), any(), any());
+    }
+}
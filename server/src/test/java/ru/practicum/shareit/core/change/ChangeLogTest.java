@@ -0,0 +1,124 @@
+package ru.practicum.shareit.core.change;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.event.*;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@RecordApplicationEvents
+public class ChangeLogTest {
+    private final ChangeLog changeLog;
+    private final ChangeEventRepository repository;
+    private final TestEntityManager entityManager;
+    private final ChangeLog other;
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    public ChangeLogTest(ChangeEventRepository repository, TestEntityManager entityManager,
+        ApplicationEventPublisher eventPublisher) {
+        this.changeLog = new ChangeLog(repository, eventPublisher, Duration.ofHours(1));
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.other = new ChangeLog(repository, event -> {
+        }, Duration.ofHours(1));
+    }
+
+    @Test
+    void poll_whenOtherInstanceRecorded_thenPublishedOnce() {
+        changeLog.poll();
+        other.record(ChangeType.ITEM, 5L);
+        other.record(ChangeType.USER, 7L);
+
+        changeLog.poll();
+        changeLog.poll();
+
+        assertEquals(List.of("ITEM 5", "USER 7"), remoteChanges());
+    }
+
+    @Test
+    void poll_whenRecordedByThisInstance_thenNotPublished() {
+        changeLog.poll();
+        changeLog.record(ChangeType.ITEM, 5L);
+
+        changeLog.poll();
+
+        assertEquals(List.of(), remoteChanges());
+    }
+
+    @Test
+    void poll_whenRecordedBeforeFirstPoll_thenSkipped() {
+        other.record(ChangeType.ITEM, 5L);
+        changeLog.poll();
+        other.record(ChangeType.ITEM, 6L);
+
+        changeLog.poll();
+
+        assertEquals(List.of("ITEM 6"), remoteChanges());
+    }
+
+    @Test
+    void poll_whenUserDeletedElsewhere_thenUserDeletedEventPublished() {
+        changeLog.poll();
+        other.record(ChangeType.USER_DELETED, 3L);
+
+        changeLog.poll();
+
+        assertEquals(List.of(3L), events.stream(UserDeletedEvent.class)
+            .map(UserDeletedEvent::getUserId)
+            .collect(Collectors.toList()));
+        assertEquals(List.of(), remoteChanges());
+    }
+
+    @Test
+    void record_whenRecorded_thenNextHeadNumberTaken() {
+        long head = repository.findHead();
+        changeLog.record(ChangeType.ITEM, 1L);
+        other.record(ChangeType.ITEM, 2L);
+
+        assertEquals(head + 2, repository.findHead());
+        assertEquals(List.of(head + 1, head + 2), repository.findBySeqGreaterThanOrderBySeqAsc(head)
+            .stream()
+            .map(ChangeEvent::getSeq)
+            .collect(Collectors.toList()));
+    }
+
+    @Test
+    void purge_whenOlderThanRetention_thenDeleted() {
+        ChangeEvent old = repository.save(new ChangeEvent(1L, "other", ChangeType.ITEM, 1L));
+        ChangeEvent recent = repository.save(new ChangeEvent(2L, "other", ChangeType.ITEM, 2L));
+        setCreated(old, repository.now().minusHours(2));
+
+        changeLog.purge();
+
+        assertEquals(List.of(recent.getId()), repository.findAll()
+            .stream()
+            .map(ChangeEvent::getId)
+            .collect(Collectors.toList()));
+    }
+
+    private List<String> remoteChanges() {
+        return events.stream(RemoteChange.class)
+            .map(change -> change.getType() + " " + change.getEntityId())
+            .collect(Collectors.toList());
+    }
+
+    private void setCreated(ChangeEvent event, LocalDateTime created) {
+        entityManager.flush();
+        entityManager.clear();
+        entityManager.getEntityManager()
+            .createNativeQuery("update change_events set created = ?1 where change_event_id = ?2")
+            .setParameter(1, created)
+            .setParameter(2, event.getId())
+            .executeUpdate();
+    }
+}
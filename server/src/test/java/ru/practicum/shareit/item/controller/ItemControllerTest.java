@@ -5,9 +5,13 @@ import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.*;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
+import ru.practicum.shareit.core.web.EtagConfig;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemServiceInterface;
 
@@ -20,6 +24,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(EtagConfig.class)
 @AutoConfigureMockMvc
 public class ItemControllerTest {
     private ObjectMapper objectMapper;
@@ -95,6 +100,25 @@ public class ItemControllerTest {
         verify(itemServiceInterface, times(1)).findById(anyLong(), anyLong());
     }
 
+    @Test
+    public void findItem_whenEtagMatches_thenStatus304WithoutBody() throws Exception {
+        when(itemServiceInterface.findById(anyLong(), anyLong())).thenReturn(itemDto);
+        String etag = mockMvc.perform(
+                get("/items/{itemId}", 1)
+                    .header("X-Sharer-User-Id", 1))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(
+                get("/items/{itemId}", 1)
+                    .header("X-Sharer-User-Id", 1)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(content().string(""));
+    }
+
     @Test
     public void findItem_whenNotExist_thenThrowNotFound() throws Exception {
         when(itemServiceInterface.findById(anyLong(), anyLong())).thenThrow(ItemNotFoundException.class);
@@ -128,11 +152,30 @@ public class ItemControllerTest {
                     .header("X-Sharer-User-Id", 1)
                     .param("text", "t"))
             .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG))
             .andExpect(content().json(objectMapper.writeValueAsString(List.of(itemDto))));
 
         verify(itemServiceInterface, times(1)).search(anyLong(), anyString(), anyInt(), anyInt());
     }
 
+    @Test
+    public void findComments_whenPageFull_thenNextCursorHeaderReturned() throws Exception {
+        CommentDto comment = new CommentDto(1L, "nice", "user", LocalDateTime.now());
+        when(itemServiceInterface.findComments(1L, 2L, "abc", 1))
+            .thenReturn(new CursorPage<>(List.of(comment), "next"));
+
+        mockMvc.perform(
+                get("/items/2/comments")
+                    .header("X-Sharer-User-Id", 1)
+                    .param("cursor", "abc")
+                    .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(jsonPath("$[0].text").value("nice"));
+
+        verify(itemServiceInterface, times(1)).findComments(1L, 2L, "abc", 1);
+    }
+
     @Test
     public void updateItem_thenStatus200andUpdatedReturns() throws Exception {
         when(itemServiceInterface.update(anyLong(), anyLong(), any())).thenReturn(itemDto);
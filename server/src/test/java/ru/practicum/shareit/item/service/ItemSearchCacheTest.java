@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ItemSearchCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private MeterRegistry registry;
+    private Clock clock;
+    private Instant now;
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenAnswer(invocation -> now);
+        cache = new ItemSearchCache(registry, 2, Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    void get_whenSameNormalizedTextAndPage_thenLoadedOnce() {
+        get("Дрель", 0);
+        get("дРЕЛЬ", 0);
+        get("дрель", 10);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, count("cache.gets", "hit"));
+        assertEquals(2, count("cache.gets", "miss"));
+        assertEquals(2, registry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void get_whenTtlExpired_thenReloaded() {
+        get("drill", 0);
+        now = now.plusSeconds(31);
+        get("drill", 0);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, registry.get("cache.evictions").counter().count());
+    }
+
+    @Test
+    void get_whenMaxSizeExceeded_thenLeastRecentlyUsedEvicted() {
+        get("drill", 0);
+        get("saw", 0);
+        get("drill", 0);
+        get("hammer", 0);
+        get("drill", 0);
+        get("saw", 0);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, registry.get("cache.evictions").counter().count());
+    }
+
+    @Test
+    void invalidateMatchingAfterCommit_whenItemTextContainsQuery_thenEntryInvalidated() {
+        get("drill", 0);
+        get("saw", 0);
+
+        cache.invalidateMatchingAfterCommit("Cordless DRILL", null);
+        get("drill", 0);
+        get("saw", 0);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, registry.get("cache.invalidations").counter().count());
+    }
+
+    @Test
+    void invalidateItemAfterCommit_whenItemCached_thenEntryInvalidated() {
+        get("drill", 0);
+        get("saw", 0);
+
+        cache.invalidateItemAfterCommit(1L);
+        get("drill", 0);
+        get("saw", 0);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_whenReturnedItemsModifiedByCaller_thenCacheUnchanged() {
+        List<ItemDto> first = cache.get("drill", 0, 10, () -> List.of(ItemDto.builder()
+            .id(1L)
+            .name("drill")
+            .comments(new ArrayList<>())
+            .build()));
+        first.get(0).setName("changed");
+        first.get(0).getComments().add(new CommentDto(1L, "text", "author", null));
+        first.clear();
+
+        List<ItemDto> second = cache.get("drill", 0, 10, List::of);
+
+        assertEquals(1, second.size());
+        assertEquals("drill", second.get(0).getName());
+        assertTrue(second.get(0).getComments().isEmpty());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void get_whenInvalidatedDuringLoad_thenResultNotCached() {
+        cache.get("drill", 0, 10, () -> {
+            cache.invalidateMatchingAfterCommit("drill");
+            return List.of();
+        });
+        get("drill", 0);
+
+        assertEquals(1, loads.get());
+        assertEquals(2, count("cache.gets", "miss"));
+    }
+
+    @Test
+    void onUserDeleted_whenInvoked_thenAllEntriesInvalidated() {
+        get("drill", 0);
+        cache.onUserDeleted(new UserDeletedEvent(1L));
+        get("drill", 0);
+
+        assertEquals(2, loads.get());
+    }
+
+    private void get(String text, int from) {
+        cache.get(text, from, 10, () -> {
+            loads.incrementAndGet();
+            return List.of(ItemDto.builder().id(1L).name(text).build());
+        });
+    }
+
+    private double count(String name, String result) {
+        return registry.get(name).tag("result", result).counter().count();
+    }
+}
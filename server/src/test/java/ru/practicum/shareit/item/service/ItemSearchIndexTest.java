@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.util.List;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    public void init() {
+        List<Item> items = List.of(
+            new Item(1L, "Дрель", "Простая дрель", true, 1L, null),
+            new Item(2L, "Power tool", "Cordless drill", true, 1L, null),
+            new Item(3L, "Hammer", "Old tool", true, 2L, null),
+            new Item(4L, "Broken tool", "Does not work", false, 2L, null),
+            new Item(5L, "Saw", "Sharp TOOL", true, 3L, null));
+        lenient().when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(items);
+    }
+
+    @Test
+    void search_whenIndexNotLoaded_thenDatabaseSearched() {
+        Item drill = new Item(2L, "Power tool", "Cordless drill", true, 1L, null);
+        when(itemRepository.search("tool", PageRequest.of(0, 2))).thenReturn(List.of(drill));
+
+        assertEquals(List.of(drill), index.search("tool", PageRequest.of(0, 2)));
+        verify(itemRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void search_whenTextInNameOrDescription_thenAvailableItemsReturned() {
+        index.load();
+
+        assertEquals(List.of(2L, 3L, 5L), index.findIds("tOoL", 0, 10));
+        assertEquals(List.of(1L), index.findIds("дрель", 0, 10));
+        assertEquals(List.of(), index.findIds("wrench", 0, 10));
+    }
+
+    @Test
+    void search_whenPaged_thenPageReturned() {
+        index.load();
+
+        assertEquals(List.of(2L, 3L), index.findIds("tool", 0, 2));
+        assertEquals(List.of(5L), index.findIds("tool", 2, 2));
+        verify(itemRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void search_whenPageRequested_thenOnlyPageHydrated() {
+        Item drill = new Item(2L, "Power tool", "Cordless drill", true, 1L, null);
+        Item hammer = new Item(3L, "Hammer", "Old tool", true, 2L, null);
+        when(itemRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(hammer, drill));
+        index.load();
+
+        assertEquals(List.of(drill, hammer), index.search("tool", PageRequest.of(0, 2)));
+    }
+
+    @Test
+    void search_whenTextShorterThanGram_thenAnsweredFromShortGrams() {
+        index.load();
+
+        assertEquals(List.of(2L, 3L), index.findIds("Ol", 0, 2));
+        assertEquals(List.of(1L), index.findIds("д", 0, 10));
+        assertEquals(List.of(), index.findIds("q", 0, 10));
+    }
+
+    @Test
+    void indexAfterCommit_whenItemUpdated_thenIndexUpdated() {
+        index.load();
+
+        index.indexAfterCommit(new Item(2L, "Drill", "Cordless", true, 1L, null));
+        index.indexAfterCommit(new Item(4L, "Broken tool", "Does not work", true, 2L, null));
+        index.indexAfterCommit(new Item(6L, "Tool box", "Red", true, 3L, null));
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), index.findIds("tool", 0, 10));
+        assertEquals(List.of(2L), index.findIds("drill", 0, 10));
+    }
+
+    @Test
+    void removeAfterCommit_whenItemDeleted_thenNotFound() {
+        index.load();
+
+        index.removeAfterCommit(3L);
+        index.removeAfterCommit(42L);
+
+        assertEquals(List.of(2L, 5L), index.findIds("tool", 0, 10));
+    }
+
+    @Test
+    void onUserDeleted_whenInvoked_thenOwnerItemsRemoved() {
+        index.load();
+
+        index.onUserDeleted(new UserDeletedEvent(2L));
+
+        assertEquals(List.of(2L, 5L), index.findIds("tool", 0, 10));
+    }
+
+    @Test
+    void load_whenMoreItemsThanBatch_thenLoadedByIdSeek() {
+        List<Item> firstBatch = LongStream.rangeClosed(1, 1000)
+            .mapToObj(id -> new Item(id, "Item " + id, "Spare", true, 1L, null))
+            .collect(Collectors.toList());
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(firstBatch);
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(1000L), any(Pageable.class)))
+            .thenReturn(List.of(new Item(1001L, "Last tool", "Spare", true, 1L, null)));
+
+        index.load();
+
+        assertEquals(List.of(1001L), index.findIds("tool", 0, 10));
+        assertEquals(1001, index.findIds("spare", 0, 2000).size());
+    }
+
+    @Test
+    void load_whenReloaded_thenRowsWrittenElsewherePickedUp() {
+        index.load();
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+            .thenReturn(List.of(new Item(7L, "Tool rack", "Added by a migration", true, 1L, null)));
+
+        index.load();
+
+        assertEquals(List.of(7L), index.findIds("tool", 0, 10));
+    }
+
+    @Test
+    void load_whenItemIndexedDuringLoad_thenChangeKept() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            index.indexAfterCommit(new Item(6L, "Tool box", "Red", true, 3L, null));
+            return List.of(new Item(3L, "Hammer", "Old tool", true, 2L, null));
+        });
+
+        index.load();
+
+        assertEquals(List.of(3L, 6L), index.findIds("tool", 0, 10));
+    }
+}
@@ -5,19 +5,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.*;
 import ru.practicum.shareit.item.storage.*;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.service.*;
 import ru.practicum.shareit.user.dto.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +40,14 @@ public class ItemServiceTest {
     private BookingService bookingService;
     @Mock
     private ItemRequestService requestService;
+    @Mock
+    private ItemSearchStrategy itemSearch;
+    @Mock
+    private ItemSearchCache searchCache;
+    @Mock
+    private ItemRequestFeed requestFeed;
+    @Mock
+    private ChangeLog changeLog;
     @InjectMocks
     private ItemService itemService;
     private long itemId;
@@ -81,6 +93,41 @@ public class ItemServiceTest {
         assertEquals(expectedItem.getDescription(), actual.getDescription());
         assertEquals(expectedItem.getAvailable(), actual.getAvailable());
         verify(itemRepository).save(any(Item.class));
+        verify(itemSearch).indexAfterCommit(expectedItem);
+        verify(changeLog).record(ChangeType.ITEM, itemId);
+    }
+
+    @Test
+    void onRemoteChange_whenItemChanged_thenIndexAndCachesUpdated() {
+        ItemRequest request = new ItemRequest(1L, "want this", notOwner, LocalDateTime.now());
+        expectedItem.setRequest(request);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
+
+        itemService.onRemoteChange(new RemoteChange(ChangeType.ITEM, itemId));
+
+        verify(itemSearch).indexAfterCommit(expectedItem);
+        verify(searchCache).invalidateItemAfterCommit(itemId);
+        verify(searchCache).invalidateMatchingAfterCommit("tool", "cool tool");
+        verify(requestFeed).putItemAfterCommit(argThat(item -> item.getRequestId().equals(1L)));
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void onRemoteChange_whenItemGone_thenRemovedFromIndex() {
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+
+        itemService.onRemoteChange(new RemoteChange(ChangeType.ITEM, itemId));
+
+        verify(itemSearch).removeAfterCommit(itemId);
+        verify(searchCache).invalidateItemAfterCommit(itemId);
+        verifyNoInteractions(requestFeed);
+    }
+
+    @Test
+    void onRemoteChange_whenOtherType_thenIgnored() {
+        itemService.onRemoteChange(new RemoteChange(ChangeType.USER, itemId));
+
+        verifyNoInteractions(itemRepository, itemSearch, searchCache, requestFeed);
     }
 
     @Test
@@ -102,6 +149,7 @@ public class ItemServiceTest {
         assertEquals(expectedItem.getDescription(), actual.getDescription());
         assertEquals(expectedItem.getAvailable(), actual.getAvailable());
         verify(itemRepository).save(any(Item.class));
+        verify(requestFeed).putItemAfterCommit(argThat(item -> item.getRequestId().equals(1L)));
     }
 
     @Test
@@ -136,13 +184,17 @@ public class ItemServiceTest {
         assertEquals(expectedComment.getCreated(), actual.getCreated());
         assertEquals(expectedComment.getText(), actual.getText());
         verify(commentRepository).save(any(Comment.class));
+        verify(searchCache).invalidateItemAfterCommit(1L);
     }
 
     @Test
     void findItemById_whenCommentsNotEmpty_thenItemReturned() {
         when(commentRepository.save(any())).thenReturn(expectedComment);
-        List<Comment> comments = List.of(expectedComment);
-        when(commentRepository.findAllByItemId(itemId)).thenReturn(comments);
+        ItemCommentView comment = new SpelAwareProxyProjectionFactory().createProjection(ItemCommentView.class,
+            Map.of("id", expectedComment.getId(), "itemId", itemId, "text", expectedComment.getText(),
+                "authorName", expectedComment.getAuthor().getName(), "total", 1L));
+        when(commentRepository.findLatestByItemIds(List.of(itemId), ItemService.LATEST_COMMENTS))
+            .thenReturn(List.of(comment));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
 
         CommentDto commentDto = CommentMapper.toCommentDto(expectedComment);
@@ -152,6 +204,29 @@ public class ItemServiceTest {
         assertEquals(expectedItem.getDescription(), actual.getDescription());
         assertEquals(expectedItem.getAvailable(), actual.getAvailable());
         assertEquals(commentDto.getText(), actual.getComments().get(0).getText());
+        assertEquals(1L, actual.getCommentsCount());
+    }
+
+    @Test
+    void findComments_whenPageFull_thenNextCursorReturned() {
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
+        when(commentRepository.findByItemIdAfterCursor(itemId, Cursor.first(Sort.Direction.DESC),
+            PageRequest.of(0, 1))).thenReturn(List.of(expectedComment));
+
+        CursorPage<CommentDto> actual = itemService.findComments(userId, itemId, null, 1);
+
+        assertEquals(1, actual.getContent().size());
+        assertEquals(expectedComment.getText(), actual.getContent().get(0).getText());
+        assertEquals(new Cursor(expectedComment.getCreated(), expectedComment.getId()),
+            Cursor.decode(actual.getNextCursor(), Sort.Direction.DESC, true));
+    }
+
+    @Test
+    void findComments_whenItemNotFound_thenExceptionReturned() {
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.findComments(userId, itemId, null, 10));
+        verify(commentRepository, never()).findByItemIdAfterCursor(any(), any(), any());
     }
 
     @Test
@@ -202,9 +277,11 @@ public class ItemServiceTest {
     @Test
     void search_whenItemsFound_thenItemListReturned() {
         expectedItem.setOwner(null);
-        Pageable pageable = PageRequest.of(0, 10);
         List<Item> items = List.of(expectedItem);
-        when(itemRepository.search("tool", pageable)).thenReturn(items);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemSearch.search("tool", pageable)).thenReturn(items);
+        when(searchCache.get(eq("tool"), eq(0), eq(10), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<List<ItemDto>>>getArgument(3).get());
 
         List<Item> actualItems = itemService.search(userId, "tool", 0, 10)
             .stream()
@@ -213,7 +290,7 @@ public class ItemServiceTest {
 
         assertEquals(items, actualItems);
         assertEquals(1, actualItems.size());
-        verify(itemRepository, times(1)).search("tool", pageable);
+        verify(itemSearch, times(1)).search("tool", pageable);
     }
 
     @Test
@@ -235,6 +312,8 @@ public class ItemServiceTest {
         updatedItem.setName("Upd");
         updatedItem.setDescription("upd");
         updatedItem.setAvailable(false);
+        String name = expectedItem.getName();
+        String description = expectedItem.getDescription();
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(expectedItem));
         when(itemRepository.save(any())).thenReturn(expectedItem);
 
@@ -247,6 +326,8 @@ public class ItemServiceTest {
         assertEquals("Upd", savedItem.getName());
         assertEquals("upd", savedItem.getDescription());
         assertEquals(false, savedItem.getAvailable());
+        verify(searchCache, times(2)).invalidateMatchingAfterCommit(name, description);
+        verify(searchCache).invalidateMatchingAfterCommit("Upd", "upd");
     }
 
     @Test
@@ -262,33 +343,37 @@ public class ItemServiceTest {
     }
 
     @Test
-    void getItemsByRequestId_whenInvoked_thenReturnList() {
-        ItemRequest request = new ItemRequest(
-            1L,
-            "want this",
-            notOwner,
-            LocalDateTime.now()
-        );
+    void getItemsByRequestIds_whenInvoked_thenItemsGroupedByRequest() {
+        ItemDtoInRequest first = new ItemDtoInRequest(1L, "tool", "cool tool", true, 1L);
+        ItemDtoInRequest second = new ItemDtoInRequest(2L, "saw", "sharp", true, 2L);
+        ItemDtoInRequest third = new ItemDtoInRequest(3L, "drill", "loud", false, 1L);
+        when(itemRepository.findByRequestIdIn(List.of(1L, 2L))).thenReturn(List.of(first, second, third));
 
-        expectedItem.setRequest(request);
-        List<ItemDtoInRequest> expected = List.of(ItemMapper.toItemDtoInRequest(expectedItem));
-        when(itemRepository.findByRequestId(1L)).thenReturn(List.of(expectedItem));
+        Map<Long, List<ItemDtoInRequest>> actual = itemService.getItemsByRequestIds(List.of(1L, 2L));
 
-        List<ItemDtoInRequest> actual = itemService.getItemsByRequestId(1L);
+        assertEquals(List.of(first, third), actual.get(1L));
+        assertEquals(List.of(second), actual.get(2L));
+    }
 
-        assertEquals(actual.size(), expected.size());
-        assertEquals(actual.get(0).getDescription(), expected.get(0).getDescription());
-        assertEquals(actual.get(0).getRequestId(), expected.get(0).getRequestId());
-        assertEquals(actual.get(0).getName(), expected.get(0).getName());
-        assertEquals(actual.get(0).getAvailable(), expected.get(0).getAvailable());
+    @Test
+    void getItemsByRequestIds_whenNoRequests_thenNothingQueried() {
+        assertTrue(itemService.getItemsByRequestIds(List.of()).isEmpty());
+        verify(itemRepository, never()).findByRequestIdIn(any());
     }
 
     @Test
     void hasUserZeroItems_whenZero_thenReturnTrue() {
-        List<Item> items = List.of();
-        when(itemRepository.findAll()).thenReturn(items);
+        when(itemRepository.existsByOwner(2L)).thenReturn(false);
         boolean actual = itemService.hasUserZeroItems(2L);
 
         assertTrue(actual);
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    void hasUserZeroItems_whenItemsOwned_thenReturnFalse() {
+        when(itemRepository.existsByOwner(2L)).thenReturn(true);
+
+        assertFalse(itemService.hasUserZeroItems(2L));
     }
 }
\ No newline at end of file
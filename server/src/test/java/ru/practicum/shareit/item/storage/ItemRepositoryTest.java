@@ -1,27 +1,39 @@
 package ru.practicum.shareit.item.storage;
 
+import org.hibernate.*;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.*;
-import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.item.model.Item;
+import org.springframework.data.domain.*;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.model.*;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest(properties = "db.name = test")
+@DataJpaTest(properties = {"db.name = test", "spring.jpa.properties.hibernate.generate_statistics=true"})
 public class ItemRepositoryTest {
     private ItemRepository itemRepository;
+    private CommentRepository commentRepository;
     private TestEntityManager entityManager;
     private User user;
     private Item foundItem;
     private Item incorrectItem;
 
     @Autowired
-    public ItemRepositoryTest(ItemRepository itemRepository, TestEntityManager entityManager) {
+    public ItemRepositoryTest(ItemRepository itemRepository, CommentRepository commentRepository,
+        TestEntityManager entityManager) {
         this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
         this.entityManager = entityManager;
     }
 
@@ -57,4 +69,181 @@ public class ItemRepositoryTest {
         assertEquals(1, actual.size());
         assertEquals("tool", actual.get(0).getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchTrigram_whenTextMatchesAvailableItem_thenItemReturned() {
+        Item unavailableItem = Item.builder()
+            .name("old tool")
+            .description("broken")
+            .available(false)
+            .build();
+        this.entityManager.persist(user);
+        foundItem.setOwner(user.getId());
+        incorrectItem.setOwner(user.getId());
+        unavailableItem.setOwner(user.getId());
+        this.entityManager.persist(foundItem);
+        this.entityManager.persist(incorrectItem);
+        this.entityManager.persist(unavailableItem);
+        List<Item> actual = itemRepository.searchTrigram("TOoL", PageRequest.of(0, 10));
+
+        assertEquals(1, actual.size());
+        assertEquals("tool", actual.get(0).getName());
+    }
+
+    @Test
+    void findLatestByItemIds_whenManyComments_thenLatestAndTotalReturnedInOneStatement() {
+        this.entityManager.persist(user);
+        foundItem.setOwner(user.getId());
+        incorrectItem.setOwner(user.getId());
+        this.entityManager.persist(foundItem);
+        this.entityManager.persist(incorrectItem);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        persistComments(foundItem, 3, now);
+        persistComments(incorrectItem, 1, now);
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Statistics statistics = getStatistics();
+
+        List<CommentDto> actual = commentRepository
+            .findLatestByItemIds(List.of(foundItem.getId(), incorrectItem.getId()), 2)
+            .stream()
+            .filter(comment -> comment.getItemId().equals(foundItem.getId()))
+            .peek(comment -> assertEquals(3L, comment.getTotal()))
+            .map(CommentMapper::toCommentDto)
+            .collect(Collectors.toList());
+
+        assertEquals(2, actual.size());
+        assertEquals("nice 2", actual.get(0).getText());
+        assertEquals("author 1", actual.get(1).getAuthorName());
+        assertEquals(now.plusMinutes(2), actual.get(0).getCreated());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByItemIdAfterCursor_whenCursorGiven_thenOlderCommentsReturned() {
+        this.entityManager.persist(user);
+        foundItem.setOwner(user.getId());
+        this.entityManager.persist(foundItem);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        persistComments(foundItem, 3, now);
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        List<Comment> firstPage = commentRepository.findByItemIdAfterCursor(foundItem.getId(),
+            Cursor.first(Sort.Direction.DESC), PageRequest.of(0, 2));
+        Comment last = firstPage.get(1);
+        List<Comment> secondPage = commentRepository.findByItemIdAfterCursor(foundItem.getId(),
+            new Cursor(last.getCreated(), last.getId()), PageRequest.of(0, 2));
+
+        assertEquals(List.of("nice 2", "nice 1"), firstPage.stream().map(Comment::getText).collect(Collectors.toList()));
+        assertEquals(List.of("nice 0"), secondPage.stream().map(Comment::getText).collect(Collectors.toList()));
+        assertEquals("author 0", CommentMapper.toCommentDto(secondPage.get(0)).getAuthorName());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void incrementBookingVersion_whenItemExists_thenLockedVersionIncremented() {
+        this.entityManager.persist(user);
+        foundItem.setOwner(user.getId());
+        this.entityManager.persist(foundItem);
+        this.entityManager.flush();
+
+        assertEquals(0L, itemRepository.findBookingVersionLocked(foundItem.getId()));
+        itemRepository.incrementBookingVersion(foundItem.getId());
+        assertEquals(1L, itemRepository.findBookingVersionLocked(foundItem.getId()));
+    }
+
+    @Test
+    void existsByOwner_whenUserOwnsItem_thenTrue() {
+        this.entityManager.persist(user);
+        foundItem.setOwner(user.getId());
+        this.entityManager.persist(foundItem);
+        this.entityManager.flush();
+
+        assertTrue(itemRepository.existsByOwner(user.getId()));
+        assertFalse(itemRepository.existsByOwner(user.getId() + 1));
+    }
+
+    @Test
+    void findWithRequestById_whenRequestedItem_thenRequestAndRequesterLoaded() {
+        ItemRequest request = ItemRequest.builder()
+            .description("need a tool")
+            .requester(user)
+            .created(LocalDateTime.now())
+            .build();
+        this.entityManager.persist(user);
+        this.entityManager.persist(request);
+        foundItem.setOwner(user.getId());
+        foundItem.setRequest(request);
+        this.entityManager.persist(foundItem);
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Statistics statistics = getStatistics();
+
+        Item actual = itemRepository.findWithRequestById(foundItem.getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(actual.getRequest()));
+        assertTrue(Hibernate.isInitialized(actual.getRequest().getRequester()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByRequestIdIn_whenItemsForSeveralRequests_thenOneStatementWithoutEntities() {
+        this.entityManager.persist(user);
+        ItemRequest first = ItemRequest.builder()
+            .description("need a tool")
+            .requester(user)
+            .created(LocalDateTime.now())
+            .build();
+        ItemRequest second = ItemRequest.builder()
+            .description("need an egg")
+            .requester(user)
+            .created(LocalDateTime.now())
+            .build();
+        this.entityManager.persist(first);
+        this.entityManager.persist(second);
+        foundItem.setOwner(user.getId());
+        foundItem.setRequest(first);
+        incorrectItem.setOwner(user.getId());
+        incorrectItem.setRequest(second);
+        this.entityManager.persist(foundItem);
+        this.entityManager.persist(incorrectItem);
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Statistics statistics = getStatistics();
+
+        List<ItemDtoInRequest> actual = itemRepository.findByRequestIdIn(List.of(first.getId(), second.getId()));
+
+        assertEquals(2, actual.size());
+        assertEquals(first.getId(), actual.stream()
+            .filter(item -> item.getName().equals("tool"))
+            .findFirst().orElseThrow().getRequestId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private void persistComments(Item item, int count, LocalDateTime now) {
+        for (int i = 0; i < count; i++) {
+            User author = User.builder()
+                .name("author " + i)
+                .email("author" + i + "-" + item.getId() + "@mail.ru")
+                .build();
+            this.entityManager.persist(author);
+            this.entityManager.persist(Comment.builder()
+                .text("nice " + i)
+                .item(item)
+                .author(author)
+                .created(now.plusMinutes(i))
+                .build());
+        }
+    }
+
+    private Statistics getStatistics() {
+        Statistics statistics = this.entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestServiceInterface;
 
@@ -118,7 +119,20 @@ public class ItemRequestControllerTest {
             .andExpect(status().isOk())
             .andExpect(content().json(objectMapper.writeValueAsString(List.of(requestDto))));
 
-        verify(requestService, times(1)).findAll(anyLong());
+        verify(requestService, times(1)).findAll(1L);
+    }
+
+    @Test
+    void findAll_whenSizeGiven_thenPageRequested() throws Exception {
+        when(requestService.findAll(anyLong(), anyInt(), anyInt())).thenReturn(List.of(requestDto));
+
+        mockMvc.perform(
+                get("/requests")
+                    .param("size", "5")
+                    .header("X-Sharer-User-Id", 1L))
+            .andExpect(status().isOk());
+
+        verify(requestService, times(1)).findAll(1L, 0, 5);
     }
 
     @Test
@@ -134,4 +148,21 @@ public class ItemRequestControllerTest {
 
         verify(requestService, times(1)).findAllFromOtherUsers(anyLong(), anyInt(), anyInt());
     }
+
+    @Test
+    void findAllFromOtherUsers_whenCursorGiven_thenNextCursorHeaderReturned() throws Exception {
+        when(requestService.findAllFromOtherUsersAfterCursor(1L, "abc", 1))
+            .thenReturn(new CursorPage<>(List.of(requestDto), "next"));
+
+        mockMvc.perform(
+                get("/requests/all")
+                    .header("X-Sharer-User-Id", 1L)
+                    .param("cursor", "abc")
+                    .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(content().json(objectMapper.writeValueAsString(List.of(requestDto))));
+
+        verify(requestService, never()).findAllFromOtherUsers(anyLong(), anyInt(), anyInt());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.*;
+import ru.practicum.shareit.core.exception.exceptions.CursorBadRequestException;
+import ru.practicum.shareit.core.pagination.Cursor;
+import ru.practicum.shareit.item.dto.ItemDtoInRequest;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemRequestFeedTest {
+    private static final Cursor FIRST = Cursor.first(Sort.Direction.DESC);
+    @Mock
+    private ItemRequestRepository requestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemRequestFeed feed;
+    private LocalDateTime now;
+    private User owner;
+    private User other;
+    private List<ItemRequest> requests;
+
+    @BeforeEach
+    public void init() {
+        feed = new ItemRequestFeed(requestRepository, itemRepository, 3);
+        now = LocalDateTime.now();
+        owner = new User(1L, "owner", "owner@mail.ru");
+        other = new User(2L, "other", "other@mail.ru");
+        requests = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            requests.add(new ItemRequest(id, "request " + id, id % 2 == 0 ? owner : other, now.minusHours(id)));
+        }
+    }
+
+    @Test
+    void find_whenFirstPageInWindow_thenServedWithoutSeek() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests);
+        when(itemRepository.findByRequestIdIn(List.of(1L, 2L, 3L)))
+            .thenReturn(List.of(new ItemDtoInRequest(7L, "tool", "cool tool", true, 3L)));
+
+        List<ItemRequestDto> firstPage = feed.find(owner.getId(), FIRST, 2);
+        List<ItemRequestDto> secondCall = feed.find(owner.getId(), FIRST, 2);
+
+        assertEquals(List.of(1L, 3L), ids(firstPage));
+        assertEquals("tool", firstPage.get(1).getItems().get(0).getName());
+        assertEquals(ids(firstPage), ids(secondCall));
+        verify(requestRepository, times(1)).findLatest(any());
+        verify(requestRepository, never()).findByRequesterIdIsNotAfterCursor(anyLong(), any(), any());
+    }
+
+    @Test
+    void find_whenWindowExhaustedAndIncomplete_thenOlderPageSought() {
+        ItemRequest older = new ItemRequest(5L, "request 5", other, now.minusHours(5));
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests);
+        when(requestRepository.findByRequesterIdIsNotAfterCursor(owner.getId(),
+            new Cursor(requests.get(2).getCreated(), 3L), PageRequest.of(0, 1))).thenReturn(List.of(older));
+
+        List<ItemRequestDto> actual = feed.find(owner.getId(), new Cursor(requests.get(0).getCreated(), 1L), 2);
+
+        assertEquals(List.of(3L, 5L), ids(actual));
+    }
+
+    @Test
+    void find_whenWindowComplete_thenNoSeek() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests.subList(0, 3));
+
+        List<ItemRequestDto> actual = feed.find(owner.getId(), FIRST, 10);
+
+        assertEquals(List.of(1L, 3L), ids(actual));
+        verify(requestRepository, never()).findByRequesterIdIsNotAfterCursor(anyLong(), any(), any());
+    }
+
+    @Test
+    void addAfterCommit_whenNewRequestSaved_thenServedFirstAndOldestEvicted() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests.subList(0, 3));
+        feed.find(owner.getId(), FIRST, 10);
+
+        feed.addAfterCommit(new ItemRequest(6L, "request 6", other, now));
+        feed.putItemAfterCommit(new ItemDtoInRequest(8L, "saw", "sharp", true, 6L));
+        List<ItemRequestDto> actual = feed.find(owner.getId(), FIRST, 1);
+
+        assertEquals(List.of(6L), ids(actual));
+        assertEquals("saw", actual.get(0).getItems().get(0).getName());
+        when(requestRepository.findByRequesterIdIsNotAfterCursor(eq(owner.getId()), any(), any()))
+            .thenReturn(List.of());
+        assertEquals(List.of(6L, 1L), ids(feed.find(owner.getId(), FIRST, 10)));
+    }
+
+    @Test
+    void onUserDeleted_whenInvoked_thenWindowReloaded() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests.subList(0, 3), List.of());
+        feed.find(owner.getId(), FIRST, 10);
+
+        feed.onUserDeleted(new UserDeletedEvent(2L));
+
+        assertTrue(feed.find(owner.getId(), FIRST, 10).isEmpty());
+        verify(requestRepository, times(2)).findLatest(any());
+    }
+
+    @Test
+    void find_whenCalledAgain_thenWindowNotReloaded() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests.subList(0, 3));
+        feed.find(owner.getId(), FIRST, 10);
+
+        assertEquals(List.of(1L, 3L), ids(feed.find(owner.getId(), FIRST, 10)));
+        verify(requestRepository, times(1)).findLatest(any());
+    }
+
+    @Test
+    void find_whenResultModified_thenWindowUnchanged() {
+        when(requestRepository.findLatest(PageRequest.of(0, 4))).thenReturn(requests.subList(0, 3));
+        when(itemRepository.findByRequestIdIn(List.of(1L, 2L, 3L)))
+            .thenReturn(List.of(new ItemDtoInRequest(7L, "tool", "cool tool", true, 3L)));
+
+        ItemRequestDto first = feed.find(owner.getId(), FIRST, 10).get(1);
+        first.setDescription("changed");
+        first.getItems().clear();
+
+        ItemRequestDto second = feed.find(owner.getId(), FIRST, 10).get(1);
+        assertEquals("request 3", second.getDescription());
+        assertEquals(1, second.getItems().size());
+    }
+
+    @Test
+    void find_whenCursorHasNoTimestamp_thenExceptionReturned() {
+        assertThrows(CursorBadRequestException.class, () -> feed.find(owner.getId(), new Cursor(null, 5L), 10));
+        verifyNoInteractions(requestRepository);
+    }
+
+    private List<Long> ids(List<ItemRequestDto> requests) {
+        return requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+}
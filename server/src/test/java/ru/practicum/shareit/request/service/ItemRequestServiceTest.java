@@ -5,7 +5,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
+import ru.practicum.shareit.item.dto.ItemDtoInRequest;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.*;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -19,6 +22,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +35,10 @@ public class ItemRequestServiceTest {
     private UserService userService;
     @Mock
     private ItemService itemService;
+    @Mock
+    private ItemRequestFeed requestFeed;
+    @Mock
+    private ChangeLog changeLog;
     private long requestId;
     private long userId;
     private ItemRequest expectedRequest;
@@ -75,16 +83,28 @@ public class ItemRequestServiceTest {
         assertEquals(expectedRequest.getId(), actual.getId());
         assertEquals(expectedRequest.getDescription(), actual.getDescription());
         verify(requestRepository).save(any(ItemRequest.class));
+        verify(requestFeed).addAfterCommit(expectedRequest);
+        verify(changeLog).record(ChangeType.REQUEST, expectedRequest.getId());
+    }
+
+    @Test
+    void onRemoteChange_whenRequestCreated_thenAddedToFeed() {
+        when(requestRepository.findById(requestId)).thenReturn(Optional.of(expectedRequest));
+
+        requestService.onRemoteChange(new RemoteChange(ChangeType.REQUEST, requestId));
+
+        verify(requestFeed).addAfterCommit(expectedRequest);
+        verifyNoInteractions(changeLog);
     }
 
     @Test
     void findRequests_whenRequestsFound_thenRequestListReturned() {
         expectedRequest.setRequester(null);
         List<ItemRequest> requests = List.of(expectedRequest);
-        when(requestRepository.findByRequesterId(1L, Sort.by("created").descending()))
+        when(requestRepository.findByRequesterId(1L, PageRequest.of(0, 10, ItemRequestService.SORT)))
             .thenReturn(requests);
 
-        List<ItemRequest> actualRequests = requestService.findAll(userId)
+        List<ItemRequest> actualRequests = requestService.findAll(userId, 0, 10)
             .stream()
             .map(RequestMapper::toRequest)
             .collect(Collectors.toList());
@@ -92,16 +112,16 @@ public class ItemRequestServiceTest {
         assertEquals(requests, actualRequests);
         assertEquals(1, actualRequests.size());
         verify(requestRepository, times(1))
-            .findByRequesterId(userId, Sort.by("created").descending());
+            .findByRequesterId(userId, PageRequest.of(0, 10, ItemRequestService.SORT));
     }
 
     @Test
     void findRequests_whenEmptyList_thenEmptyListReturned() {
         List<ItemRequest> requests = List.of();
-        when(requestRepository.findByRequesterId(1L, Sort.by("created").descending()))
+        when(requestRepository.findByRequesterId(1L, PageRequest.of(0, 10, ItemRequestService.SORT)))
             .thenReturn(requests);
 
-        List<ItemRequest> actualRequests = requestService.findAll(userId)
+        List<ItemRequest> actualRequests = requestService.findAll(userId, 0, 10)
             .stream()
             .map(RequestMapper::toRequest)
             .collect(Collectors.toList());
@@ -109,17 +129,27 @@ public class ItemRequestServiceTest {
         assertEquals(requests, actualRequests);
         assertTrue(actualRequests.isEmpty());
         verify(requestRepository, times(1))
-            .findByRequesterId(userId, Sort.by("created").descending());
+            .findByRequesterId(userId, PageRequest.of(0, 10, ItemRequestService.SORT));
+    }
+
+    @Test
+    void findRequests_whenUnpaged_thenAllRequestsReturned() {
+        expectedRequest.setRequester(null);
+        when(requestRepository.findByRequesterId(1L, ItemRequestService.SORT))
+            .thenReturn(List.of(expectedRequest));
+
+        assertEquals(1, requestService.findAll(userId).size());
+        verify(requestRepository, never()).findByRequesterId(anyLong(), any(Pageable.class));
     }
 
     @Test
     void findRequestsFromOtherUsers_whenRequestsFound_thenRequestListReturned() {
         expectedRequest.setRequester(null);
         List<ItemRequest> requests = List.of(expectedRequest);
-        Pageable pageable = PageRequest.of(0, 10, Sort.by("created").descending());
+        Pageable pageable = PageRequest.of(1, 10, ItemRequestService.SORT);
         when(requestRepository.findByRequesterIdIsNot(1L, pageable)).thenReturn(requests);
 
-        List<ItemRequest> actualRequests = requestService.findAllFromOtherUsers(userId, 0, 10)
+        List<ItemRequest> actualRequests = requestService.findAllFromOtherUsers(userId, 10, 10)
             .stream()
             .map(RequestMapper::toRequest)
             .collect(Collectors.toList());
@@ -129,6 +159,52 @@ public class ItemRequestServiceTest {
         verify(requestRepository, times(1)).findByRequesterIdIsNot(userId, pageable);
     }
 
+    @Test
+    void findRequestsFromOtherUsers_whenPageHasManyRequests_thenItemsLoadedOnce() {
+        ItemRequest otherRequest = new ItemRequest(2L, "better", requester, LocalDateTime.now());
+        Pageable pageable = PageRequest.of(1, 10, ItemRequestService.SORT);
+        ItemDtoInRequest item = new ItemDtoInRequest(5L, "tool", "cool tool", true, 2L);
+        when(requestRepository.findByRequesterIdIsNot(1L, pageable)).thenReturn(List.of(expectedRequest, otherRequest));
+        when(itemService.getItemsByRequestIds(List.of(1L, 2L))).thenReturn(Map.of(2L, List.of(item)));
+
+        List<ItemRequestDto> actual = new ArrayList<>(requestService.findAllFromOtherUsers(userId, 10, 10));
+
+        assertTrue(actual.get(0).getItems().isEmpty());
+        assertEquals(List.of(item), actual.get(1).getItems());
+        verify(itemService, times(1)).getItemsByRequestIds(anyCollection());
+    }
+
+    @Test
+    void findRequestsFromOtherUsers_whenFirstPage_thenServedFromFeed() {
+        List<ItemRequestDto> expected = List.of(RequestMapper.toRequestDto(expectedRequest));
+        when(requestFeed.find(userId, Cursor.first(Sort.Direction.DESC), 10)).thenReturn(expected);
+
+        Collection<ItemRequestDto> actual = requestService.findAllFromOtherUsers(userId, 0, 10);
+
+        assertEquals(expected, actual);
+        verify(requestRepository, never()).findByRequesterIdIsNot(anyLong(), any());
+    }
+
+    @Test
+    void findRequestsFromOtherUsersAfterCursor_whenPageFull_thenNextCursorReturned() {
+        Cursor cursor = new Cursor(expectedRequest.getCreated().plusDays(1), 9L);
+        List<ItemRequestDto> expected = List.of(RequestMapper.toRequestDto(expectedRequest));
+        when(requestFeed.find(userId, cursor, 1)).thenReturn(expected);
+
+        CursorPage<ItemRequestDto> actual = requestService.findAllFromOtherUsersAfterCursor(userId, cursor.encode(), 1);
+
+        assertEquals(expected, actual.getContent());
+        assertEquals(new Cursor(expectedRequest.getCreated(), requestId),
+            Cursor.decode(actual.getNextCursor(), Sort.Direction.DESC, true));
+    }
+
+    @Test
+    void findRequestsFromOtherUsersAfterCursor_whenCursorHasNoTimestamp_thenExceptionReturned() {
+        assertThrows(CursorBadRequestException.class,
+            () -> requestService.findAllFromOtherUsersAfterCursor(userId, "fDU", 10));
+        verifyNoInteractions(requestFeed);
+    }
+
     @Test
     void findRequestsFromOtherUsers_whenIncorrectPagination_thenExceptionReturned() {
         assertThrows(ArithmeticException.class,
@@ -7,12 +7,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.*;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.*;
 import ru.practicum.shareit.core.exception.exceptions.*;
+import ru.practicum.shareit.core.pagination.*;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserServiceInterface;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -102,6 +104,44 @@ public class UserControllerTest {
         verify(userServiceInterface, times(1)).findAll();
     }
 
+    @Test
+    public void findAll_whenSizeGiven_thenPageAndNextCursorReturned() throws Exception {
+        when(userServiceInterface.findAll("abc", 1)).thenReturn(new CursorPage<>(List.of(userDto), "next"));
+
+        mockMvc.perform(
+                get("/users")
+                    .param("cursor", "abc")
+                    .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(content().json(objectMapper.writeValueAsString(List.of(userDto))));
+
+        verify(userServiceInterface, never()).findAll();
+    }
+
+    @Test
+    public void stream_whenNdjsonAccepted_thenOneUserPerLineWritten() throws Exception {
+        UserDto other = new UserDto(2L, "other", "other@mail.ru");
+        doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(userDto);
+            action.accept(other);
+            return null;
+        }).when(userServiceInterface).forEach(any());
+
+        MvcResult result = mockMvc.perform(
+                get("/users")
+                    .accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(objectMapper.writeValueAsString(userDto) + "\n"
+                + objectMapper.writeValueAsString(other)));
+    }
+
     @Test
     public void updateUser_thenStatus200andUpdatedReturns() throws Exception {
         when(userServiceInterface.update(any(), anyLong())).thenReturn(userDto);
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import ru.practicum.shareit.core.change.*;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.*;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UserCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private MeterRegistry registry;
+    private Instant now;
+    private UserCache cache;
+
+    @BeforeEach
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        Clock clock = mock(Clock.class);
+        now = Instant.now();
+        when(clock.instant()).thenAnswer(invocation -> now);
+        cache = new UserCache(registry, 2, Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void get_whenKnownAndUnknownIdsRepeated_thenEachLoadedOnce() {
+        get(1L);
+        get(1L);
+        get(99L);
+        Optional<User> unknown = get(99L);
+
+        assertTrue(unknown.isEmpty());
+        assertEquals(2, loads.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("negative-hit"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void get_whenCachedUserModifiedByCaller_thenCacheUnchanged() {
+        get(1L).orElseThrow().setName("changed");
+
+        assertEquals("user 1", get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void get_whenTtlExpired_thenReloaded() {
+        get(1L);
+        now = now.plusSeconds(61);
+        get(1L);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_whenMaxSizeExceeded_thenLeastRecentlyUsedEvicted() {
+        get(1L);
+        get(2L);
+        get(1L);
+        get(3L);
+        get(1L);
+        get(2L);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, registry.get("cache.size").gauge().value());
+    }
+
+    @Test
+    void evictAfterCommit_whenUserCreatedWithCachedMissingId_thenFound() {
+        assertTrue(cache.get(5L, id -> Optional.empty()).isEmpty());
+
+        cache.evictAfterCommit(5L);
+
+        assertTrue(get(5L).isPresent());
+    }
+
+    @Test
+    void get_whenEvictedDuringLoad_thenStaleValueNotCached() {
+        cache.get(1L, id -> {
+            cache.evictAfterCommit(id);
+            return Optional.of(new User(id, "stale", "stale@mail.ru"));
+        });
+
+        assertEquals("user 1", get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void onUserDeleted_whenUserCached_thenReloaded() {
+        get(1L);
+
+        cache.onUserDeleted(new UserDeletedEvent(1L));
+        get(1L);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onRemoteChange_whenUserChangedElsewhere_thenReloaded() {
+        get(1L);
+
+        cache.onRemoteChange(new RemoteChange(ChangeType.USER, 1L));
+        cache.onRemoteChange(new RemoteChange(ChangeType.ITEM, 1L));
+        get(1L);
+        get(1L);
+
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<User> get(long userId) {
+        return cache.get(userId, id -> {
+            loads.incrementAndGet();
+            return id < 10 ? Optional.of(new User(id, "user " + id, "user" + id + "@mail.ru")) : Optional.empty();
+        });
+    }
+
+    private double count(String result) {
+        return registry.get("cache.gets").tag("result", result).counter().count();
+    }
+}
@@ -1,16 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.core.change.*;
 import ru.practicum.shareit.core.exception.exceptions.UserNotFoundException;
+import ru.practicum.shareit.core.pagination.CursorPage;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.dto.*;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,6 +27,15 @@ import static org.mockito.Mockito.*;
 public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ChangeLog changeLog;
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(1),
+        Clock.systemUTC());
     @InjectMocks
     private UserService userService;
     private long userId;
@@ -50,6 +67,67 @@ public class UserServiceTest {
         assertThrows(UserNotFoundException.class, () -> userService.findById(userId));
     }
 
+    @Test
+    void getExistingUser_whenCalledTwice_thenLoadedOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(expectedUser));
+
+        userService.getExistingUser(userId);
+        User actual = userService.getExistingUser(userId);
+
+        assertEquals(expectedUser, actual);
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getExistingUser_whenUnknownIdRequestedTwice_thenLoadedOnce() {
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getExistingUser(userId));
+        assertThrows(UserNotFoundException.class, () -> userService.getExistingUser(userId));
+
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void getExistingUser_whenUserUpdated_thenReloaded() {
+        when(userRepository.findById(userId)).thenReturn(Optional.of(expectedUser));
+        userService.getExistingUser(userId);
+
+        userService.update(new UserDto(null, "Upd", null), userId);
+        User actual = userService.getExistingUser(userId);
+
+        assertEquals("Upd", actual.getName());
+        verify(userRepository, times(3)).findById(userId);
+    }
+
+    @Test
+    void findUsers_whenPageFull_thenNextCursorReturned() {
+        User other = new User(2L, "other", "other@mail.ru");
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 2)))
+            .thenReturn(List.of(expectedUser, other));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        CursorPage<UserDto> first = userService.findAll(null, 2);
+        CursorPage<UserDto> second = userService.findAll(first.getNextCursor(), 2);
+
+        assertEquals(List.of(1L, 2L), first.getContent().stream().map(UserDto::getId).collect(Collectors.toList()));
+        assertTrue(second.getContent().isEmpty());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void forEachUser_whenUsersStreamed_thenStreamClosed() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamAll()).thenReturn(Stream.of(UserMapper.toUserDto(expectedUser))
+            .onClose(() -> closed.set(true)));
+        List<UserDto> actual = new ArrayList<>();
+
+        userService.forEach(actual::add);
+
+        assertEquals(1, actual.size());
+        assertTrue(closed.get());
+    }
+
     @Test
     void saveUser_whenUserEmailValid_thenUserReturned() {
         when(userRepository.save(expectedUser)).thenReturn(expectedUser);
@@ -60,6 +138,7 @@ public class UserServiceTest {
         assertEquals(expectedUser.getName(), actual.getName());
         assertEquals(expectedUser.getEmail(), actual.getEmail());
         verify(userRepository).save(expectedUser);
+        verify(changeLog).record(ChangeType.USER, userId);
     }
 
     @Test
@@ -140,10 +219,17 @@ public class UserServiceTest {
     @Test
     void deleteUser_whenUserFound_thenNothingReturned() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(expectedUser));
+        when(itemRepository.findIdsByOwnerOrBooker(userId)).thenReturn(List.of(3L, 4L));
 
         userService.delete(userId);
 
-        verify(userRepository).deleteById(userId);
+        InOrder inOrder = inOrder(itemRepository, userRepository);
+        inOrder.verify(itemRepository).incrementBookingVersionByBooker(userId);
+        inOrder.verify(userRepository).deleteById(userId);
+        verify(eventPublisher).publishEvent(any(UserDeletedEvent.class));
+        verify(changeLog).record(ChangeType.USER_DELETED, userId);
+        verify(changeLog).record(ChangeType.ITEM, 3L);
+        verify(changeLog).record(ChangeType.ITEM, 4L);
     }
 
     @Test